@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ThreadDTO;
+import com.example.demo.dto.ThreadReplyDTO;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Reply;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BenchmarkFixtures class, builds entities and DTOs of given size shared by benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    /**
+     * Message length close to average forum post
+     */
+    private static final String MESSAGE = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor "
+            + "incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation.";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Build question entity with given number of replies, ids of replies follow question id
+     *
+     * @param replyCount number of replies
+     * @return Question entity object
+     */
+    static Question question(int replyCount) {
+        List<Reply> replies = new ArrayList<>(replyCount);
+        Question question = Question.builder()
+                .id(1L)
+                .author("Question author")
+                .message(MESSAGE)
+                .replyCount(replyCount)
+                .replies(replies)
+                .build();
+        for (int i = 0; i < replyCount; i++) {
+            replies.add(Reply.builder()
+                    .id(i + 2L)
+                    .author("Reply author " + i)
+                    .message(MESSAGE)
+                    .question(question)
+                    .build());
+        }
+        return question;
+    }
+
+    /**
+     * Build thread with given number of replies
+     *
+     * @param replyCount number of replies
+     * @return ThreadDTO transfer object
+     */
+    static ThreadDTO thread(int replyCount) {
+        List<ThreadReplyDTO> replies = new ArrayList<>(replyCount);
+        for (int i = 0; i < replyCount; i++) {
+            replies.add(ThreadReplyDTO.builder()
+                    .id(i + 2L)
+                    .author("Reply author " + i)
+                    .message(MESSAGE)
+                    .build());
+        }
+        return ThreadDTO.builder()
+                .id(1L)
+                .author("Question author")
+                .message(MESSAGE)
+                .replies(replies)
+                .totalReplies((long) replyCount)
+                .nextCursor(null)
+                .build();
+    }
+
+    /**
+     * Build page of questions
+     *
+     * @param size number of questions
+     * @return list of QuestionDTO
+     */
+    static List<QuestionDTO> questions(int size) {
+        List<QuestionDTO> questions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            questions.add(new QuestionDTO(i + 1L, "Question author " + i, MESSAGE, 20L));
+        }
+        return questions;
+    }
+
+    /**
+     * Message text used by all fixtures
+     *
+     * @return message text
+     */
+    static String message() {
+        return MESSAGE;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.ForumApplication;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IdAllocationBenchmark class, measures latency of single item writes by sequence allocation size.
+ * With allocation size 1 every insert reads next value of sequence, with pooled-lo allocation one read serves
+ * the whole block of ids. Statements per inserted entity, thread view rows included, are printed at the end of each
+ * trial. Results on 1 vCPU, JDK 21, in-memory H2, 30 warmup iterations:
+ * <pre>
+ * allocationSize  benchmark       us/op  ops/s  statements/entity
+ *              1  createQuestion   45.5  21903  2.00
+ *             50  createQuestion   45.1  22446  1.51
+ *              1  createReply     100.2   9594  5.00
+ *             50  createReply      97.0   9919  4.02
+ * </pre>
+ * Pooled-lo saves one sequence statement per insert. Against in-memory H2 the statement costs no round trip,
+ * so latency differs within error of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 30, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class IdAllocationBenchmark {
+
+    @Param({"1", "50"})
+    private int allocationSize;
+
+    private ConfigurableApplicationContext context;
+
+    private QuestionService questionService;
+
+    private Long questionId;
+
+    private Statistics statistics;
+
+    private final QuestionDTO question = QuestionDTO.builder()
+            .author("Question author")
+            .message(BenchmarkFixtures.message())
+            .build();
+
+    private final ReplyDTO reply = ReplyDTO.builder()
+            .author("Reply author")
+            .message(BenchmarkFixtures.message())
+            .build();
+
+    /**
+     * Start application context on fresh in-memory database, sequences are created with given allocation size
+     */
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ForumApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:ids",
+                        "--spring.jpa.show-sql=false",
+                        "--forum.reconciliation.enabled=false",
+                        "--forum.id.allocation-size=" + allocationSize,
+                        "--logging.level.root=WARN");
+        questionService = context.getBean(QuestionService.class);
+        questionId = questionService.createQuestion(question).getId();
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Print number of statements per inserted entity and close application context, in-memory database is dropped with it
+     */
+    @TearDown
+    public void tearDown() {
+        long inserts = statistics.getEntityInsertCount();
+        System.out.printf("%nStatements per inserted entity with allocation size %d: %.2f%n", allocationSize,
+                inserts == 0 ? 0.0 : (double) statistics.getPrepareStatementCount() / inserts);
+        context.close();
+    }
+
+    /**
+     * Create question in its own transaction
+     *
+     * @return created QuestionDTO
+     */
+    @Benchmark
+    public QuestionDTO createQuestion() {
+        return questionService.createQuestion(question);
+    }
+
+    /**
+     * Create reply in its own transaction, all replies go to the same question
+     *
+     * @return created ReplyDTO
+     */
+    @Benchmark
+    public ReplyDTO createReply() {
+        return questionService.createReply(reply, questionId);
+    }
+}
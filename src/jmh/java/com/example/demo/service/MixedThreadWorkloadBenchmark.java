@@ -0,0 +1,153 @@
+package com.example.demo.service;
+
+import com.example.demo.ForumApplication;
+import com.example.demo.dto.BulkItemResultDTO;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MixedThreadWorkloadBenchmark class, measures reads of thread first pages while other threads post replies to
+ * the same threads, with thread cache on and off. Every reply invalidates cached thread of its question, so cache
+ * has to pay off between writes. Cache off keeps no entry and every read is served from thread view.
+ * Results of 3 readers and 1 writer on 1 vCPU, JDK 21, in-memory H2, 40 warmup iterations:
+ * <pre>
+ * cache  read ops/s  write ops/s
+ * on         830278          485
+ * off         17284         1971
+ * </pre>
+ * With single CPU writer shares it with readers, so it gets fewer turns when reads are cheap.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 40, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class MixedThreadWorkloadBenchmark {
+
+    private static final int BULK_SIZE = 1000;
+
+    @Param({"on", "off"})
+    private String cache;
+
+    @Param({"200"})
+    private int questions;
+
+    @Param({"20"})
+    private int replies;
+
+    private ConfigurableApplicationContext context;
+
+    private QuestionService questionService;
+
+    private List<Long> questionIds;
+
+    private final ReplyDTO reply = ReplyDTO.builder()
+            .author("Reply author")
+            .message(BenchmarkFixtures.message())
+            .build();
+
+    /**
+     * Start application context on fresh in-memory database and seed threads through bulk service
+     */
+    @Setup
+    public void setUp() {
+        boolean cached = "on".equals(cache);
+        context = new SpringApplicationBuilder(ForumApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:mixed",
+                        "--spring.jpa.show-sql=false",
+                        "--forum.reconciliation.enabled=false",
+                        "--forum.cache.thread.max-size=" + (cached ? 1000 : 0),
+                        "--forum.cache.thread.mapped.enabled=" + cached,
+                        "--logging.level.root=WARN");
+        questionService = context.getBean(QuestionService.class);
+        QuestionBulkService bulkService = context.getBean(QuestionBulkService.class);
+
+        List<QuestionDTO> questionBatch = new ArrayList<>(questions);
+        for (int i = 0; i < questions; i++) {
+            questionBatch.add(QuestionDTO.builder().author("Question author " + i).message(BenchmarkFixtures.message()).build());
+        }
+        questionIds = new ArrayList<>(questions);
+        for (BulkItemResultDTO result : bulkService.createQuestions(questionBatch).getResults()) {
+            questionIds.add(result.getId());
+        }
+        List<ReplyDTO> replyBatch = new ArrayList<>(BULK_SIZE);
+        for (Long questionId : questionIds) {
+            for (int i = 0; i < replies; i++) {
+                replyBatch.add(ReplyDTO.builder()
+                        .questionId(questionId)
+                        .author("Reply author " + i)
+                        .message(BenchmarkFixtures.message())
+                        .build());
+                if (replyBatch.size() == BULK_SIZE) {
+                    bulkService.createReplies(replyBatch);
+                    replyBatch.clear();
+                }
+            }
+        }
+        if (!replyBatch.isEmpty()) {
+            bulkService.createReplies(replyBatch);
+        }
+    }
+
+    /**
+     * Close application context, in-memory database is dropped with it
+     */
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Read first page of random thread
+     *
+     * @return RenderedThread
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public RenderedThread read() {
+        return questionService.getRenderedThread(randomQuestionId());
+    }
+
+    /**
+     * Post reply to random thread, invalidates its cached first page
+     *
+     * @return created ReplyDTO
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public ReplyDTO write() {
+        return questionService.createReply(reply, randomQuestionId());
+    }
+
+    private Long randomQuestionId() {
+        return questionIds.get(ThreadLocalRandom.current().nextInt(questionIds.size()));
+    }
+}
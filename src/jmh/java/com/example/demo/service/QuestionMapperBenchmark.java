@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ThreadDTO;
+import com.example.demo.entity.Question;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QuestionMapperBenchmark class, measures mapping of entities to DTOs for threads of different size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionMapperBenchmark {
+
+    @Param({"0", "20", "100", "1000", "10000"})
+    private int replies;
+
+    private QuestionMapper questionMapper;
+
+    private Question question;
+
+    /**
+     * Build question with configured number of replies
+     */
+    @Setup
+    public void setUp() {
+        questionMapper = new QuestionMapper();
+        question = BenchmarkFixtures.question(replies);
+    }
+
+    /**
+     * Map question with its replies to thread
+     *
+     * @return ThreadDTO
+     */
+    @Benchmark
+    public ThreadDTO questionToThreadDTO() {
+        return questionMapper.questionToThreadDTO(question, question.getReplies(), null);
+    }
+
+    /**
+     * Map question to list item
+     *
+     * @return QuestionDTO
+     */
+    @Benchmark
+    public QuestionDTO questionToQuestionDTO() {
+        return questionMapper.questionToQuestionDTO(question);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.service;
+
+import com.example.demo.ForumApplication;
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.BulkItemResultDTO;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.QuestionPageDTO;
+import com.example.demo.dto.ReplyDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QuestionServiceBenchmark class, measures QuestionService against embedded H2 seeded through bulk endpoints.
+ * Each trial starts application context without web server on fresh in-memory database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuestionServiceBenchmark {
+
+    private static final int BULK_SIZE = 1000;
+
+    @Param({"10000"})
+    private int questions;
+
+    @Param({"10"})
+    private int repliesPerQuestion;
+
+    @Param({"5000"})
+    private int hotThreadReplies;
+
+    private ConfigurableApplicationContext context;
+
+    private QuestionService questionService;
+
+    private List<Long> questionIds;
+
+    private Long hotQuestionId;
+
+    private int uncachedLimit;
+
+    private String lastQuestionPageCursor;
+
+    private String middleHotThreadCursor;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    /**
+     * Start application context and seed database, every question gets the same number of replies
+     * except single hot question
+     */
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ForumApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--forum.reconciliation.enabled=false",
+                        "--logging.level.root=WARN");
+        questionService = context.getBean(QuestionService.class);
+        QuestionBulkService bulkService = context.getBean(QuestionBulkService.class);
+
+        questionIds = new ArrayList<>(questions);
+        List<QuestionDTO> questionBatch = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < questions; i++) {
+            questionBatch.add(QuestionDTO.builder().author("Question author " + i).message(BenchmarkFixtures.message()).build());
+            if (questionBatch.size() == BULK_SIZE || i == questions - 1) {
+                for (BulkItemResultDTO result : bulkService.createQuestions(questionBatch).getResults()) {
+                    questionIds.add(result.getId());
+                }
+                questionBatch.clear();
+            }
+        }
+        hotQuestionId = questionIds.get(0);
+
+        // hot question comes first, so its replies are the first results
+        List<Long> hotReplyIds = new ArrayList<>(hotThreadReplies);
+        List<ReplyDTO> replyBatch = new ArrayList<>(BULK_SIZE);
+        for (Long questionId : questionIds) {
+            int count = questionId.equals(hotQuestionId) ? hotThreadReplies : repliesPerQuestion;
+            for (int i = 0; i < count; i++) {
+                replyBatch.add(ReplyDTO.builder()
+                        .questionId(questionId)
+                        .author("Reply author " + i)
+                        .message(BenchmarkFixtures.message())
+                        .build());
+                if (replyBatch.size() == BULK_SIZE) {
+                    collectIds(bulkService.createReplies(replyBatch).getResults(), hotReplyIds);
+                    replyBatch.clear();
+                }
+            }
+        }
+        if (!replyBatch.isEmpty()) {
+            collectIds(bulkService.createReplies(replyBatch).getResults(), hotReplyIds);
+        }
+
+        uncachedLimit = context.getBean(ForumProperties.class).getPagination().getDefaultLimit() + 1;
+        lastQuestionPageCursor = PageCursor.encode(questionIds.get(questions - uncachedLimit));
+        // page size is capped, so the cursor is built from reply id instead of paging to the middle
+        middleHotThreadCursor = PageCursor.encode(hotReplyIds.get(hotThreadReplies / 2 - 1));
+    }
+
+    /**
+     * Collect ids of created replies until all replies of hot thread are collected
+     *
+     * @param results     results of bulk create in request order
+     * @param hotReplyIds ids of hot thread replies collected so far
+     */
+    private void collectIds(List<BulkItemResultDTO> results, List<Long> hotReplyIds) {
+        for (BulkItemResultDTO result : results) {
+            if (hotReplyIds.size() == hotThreadReplies) {
+                return;
+            }
+            hotReplyIds.add(result.getId());
+        }
+    }
+
+    /**
+     * Close application context, in-memory database is dropped with it
+     */
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Read first page of questions
+     *
+     * @return QuestionPageDTO
+     */
+    @Benchmark
+    public QuestionPageDTO firstQuestionPage() {
+        return questionService.getAllQuestions(null, null);
+    }
+
+    /**
+     * Read last page of questions, keyset pagination keeps it as cheap as the first one
+     *
+     * @return QuestionPageDTO
+     */
+    @Benchmark
+    public QuestionPageDTO lastQuestionPage() {
+        return questionService.getAllQuestions(lastQuestionPageCursor, null);
+    }
+
+    /**
+     * Read first page of hot thread, served by thread cache
+     *
+     * @return RenderedThread
+     */
+    @Benchmark
+    public RenderedThread cachedThread() {
+        return questionService.getRenderedThread(hotQuestionId);
+    }
+
+    /**
+     * Write first page of hot thread read from database, page size other than default bypasses thread cache
+     *
+     * @return number of written bytes
+     * @throws IOException never, output is in memory
+     */
+    @Benchmark
+    public int uncachedThread() throws IOException {
+        out.reset();
+        questionService.writeThread(out, hotQuestionId, null, uncachedLimit);
+        return out.size();
+    }
+
+    /**
+     * Write page from the middle of hot thread
+     *
+     * @return number of written bytes
+     * @throws IOException never, output is in memory
+     */
+    @Benchmark
+    public int middleThreadPage() throws IOException {
+        out.reset();
+        questionService.writeThread(out, hotQuestionId, middleHotThreadCursor, null);
+        return out.size();
+    }
+
+    /**
+     * Create reply to random question other than hot one, includes id allocation, reply count increment
+     * and cache invalidation
+     *
+     * @return ReplyDTO
+     */
+    @Benchmark
+    public ReplyDTO createReply() {
+        Long questionId = questionIds.get(1 + ThreadLocalRandom.current().nextInt(questionIds.size() - 1));
+        return questionService.createReply(ReplyDTO.builder()
+                .author("Benchmark author")
+                .message(BenchmarkFixtures.message())
+                .build(), questionId);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import com.example.demo.ForumApplication;
+import com.example.demo.dto.BulkItemResultDTO;
+import com.example.demo.dto.BulkResultDTO;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReplyImportBenchmark class, compares import of replies through bulk service with one call of single item service
+ * per reply. Both insert the same number of replies spread over the same questions per invocation, results are
+ * in rows per second. Both paths need long warmup before throughput settles. Results on 1 vCPU, JDK 21, in-memory H2:
+ * <pre>
+ * bulk    10311 rows/s
+ * single   9658 rows/s
+ * </pre>
+ * In-memory H2 has no network round trip per statement and per commit, which is what batching saves, so the gap
+ * against database over network is expected to be much larger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 12, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReplyImportBenchmark {
+
+    /**
+     * Replies inserted per invocation, size of one bulk request
+     */
+    private static final int ROWS = 1000;
+
+    private static final int QUESTIONS = 100;
+
+    private ConfigurableApplicationContext context;
+
+    private QuestionService questionService;
+
+    private QuestionBulkService bulkService;
+
+    private List<ReplyDTO> replies;
+
+    /**
+     * Start application context on fresh in-memory database and create questions replied to
+     */
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ForumApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:import",
+                        "--spring.jpa.show-sql=false",
+                        "--forum.reconciliation.enabled=false",
+                        "--logging.level.root=WARN");
+        questionService = context.getBean(QuestionService.class);
+        bulkService = context.getBean(QuestionBulkService.class);
+
+        List<QuestionDTO> questions = new ArrayList<>(QUESTIONS);
+        for (int i = 0; i < QUESTIONS; i++) {
+            questions.add(QuestionDTO.builder().author("Question author " + i).message(BenchmarkFixtures.message()).build());
+        }
+        replies = new ArrayList<>(ROWS);
+        List<BulkItemResultDTO> created = bulkService.createQuestions(questions).getResults();
+        for (int i = 0; i < ROWS; i++) {
+            replies.add(ReplyDTO.builder()
+                    .questionId(created.get(i % QUESTIONS).getId())
+                    .author("Reply author " + i)
+                    .message(BenchmarkFixtures.message())
+                    .build());
+        }
+    }
+
+    /**
+     * Close application context, in-memory database is dropped with it
+     */
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Insert replies with single bulk request, one transaction with batched inserts
+     *
+     * @return BulkResultDTO
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BulkResultDTO bulk() {
+        return bulkService.createReplies(replies);
+    }
+
+    /**
+     * Insert the same replies one by one as single item endpoint does, one transaction per reply
+     *
+     * @return last created reply
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ReplyDTO single() {
+        ReplyDTO created = null;
+        for (ReplyDTO reply : replies) {
+            created = questionService.createReply(reply, reply.getQuestionId());
+        }
+        return created;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.SearchHitDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchIndexBenchmark class, measures search over in-memory index of synthetic posts.
+ * Words of messages follow skewed distribution, so queries mix frequent and rare terms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SearchIndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int WORDS_PER_POST = 20;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1000000"})
+    private int posts;
+
+    private SearchIndex searchIndex;
+
+    private String[] frequentQueries;
+
+    private String[] rareQueries;
+
+    private int next;
+
+    /**
+     * Index configured number of posts
+     */
+    @Setup
+    public void setUp() {
+        searchIndex = new SearchIndex(new ForumProperties());
+        Random random = new Random(42);
+        List<QuestionDTO> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= posts; id++) {
+            StringBuilder message = new StringBuilder();
+            for (int i = 0; i < WORDS_PER_POST; i++) {
+                message.append(word(random.nextInt(random.nextInt(VOCABULARY) + 1))).append(' ');
+            }
+            batch.add(new QuestionDTO(id, "author", message.toString(), 0L));
+            if (batch.size() == BATCH_SIZE) {
+                batch.forEach(searchIndex::putQuestion);
+                batch.clear();
+            }
+        }
+        batch.forEach(searchIndex::putQuestion);
+        searchIndex.commit();
+
+        frequentQueries = new String[64];
+        rareQueries = new String[64];
+        for (int i = 0; i < 64; i++) {
+            frequentQueries[i] = word(random.nextInt(10)) + " " + word(random.nextInt(100));
+            rareQueries[i] = word(1000 + random.nextInt(VOCABULARY - 1000));
+        }
+    }
+
+    /**
+     * Close index
+     *
+     * @throws IOException never for in-memory index
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        searchIndex.close();
+    }
+
+    /**
+     * First page of two frequent terms, matching large part of posts
+     *
+     * @return hits
+     */
+    @Benchmark
+    public List<SearchHitDTO> frequentTerms() {
+        return searchIndex.search(frequentQueries[next++ & 63], 0, 21);
+    }
+
+    /**
+     * First page of single rare term
+     *
+     * @return hits
+     */
+    @Benchmark
+    public List<SearchHitDTO> rareTerm() {
+        return searchIndex.search(rareQueries[next++ & 63], 0, 21);
+    }
+
+    private static String word(int index) {
+        return "w" + Integer.toString(index, 36);
+    }
+}
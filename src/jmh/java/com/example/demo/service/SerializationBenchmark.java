@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.QuestionPageDTO;
+import com.example.demo.dto.ThreadDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SerializationBenchmark class, measures Jackson serialization of response bodies with mapper configured
+ * as in the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"0", "20", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private ThreadDTO thread;
+
+    private QuestionPageDTO questionPage;
+
+    /**
+     * Build thread with configured number of replies and page with configured number of questions
+     */
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        thread = BenchmarkFixtures.thread(size);
+        questionPage = QuestionPageDTO.builder()
+                .questions(BenchmarkFixtures.questions(size))
+                .nextCursor(null)
+                .build();
+    }
+
+    /**
+     * Serialize thread to UTF-8 JSON
+     *
+     * @return JSON bytes
+     * @throws JsonProcessingException never for fixture data
+     */
+    @Benchmark
+    public byte[] thread() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(thread);
+    }
+
+    /**
+     * Serialize page of questions to UTF-8 JSON
+     *
+     * @return JSON bytes
+     * @throws JsonProcessingException never for fixture data
+     */
+    @Benchmark
+    public byte[] questionPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(questionPage);
+    }
+}
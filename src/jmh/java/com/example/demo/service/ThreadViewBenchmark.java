@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import com.example.demo.ForumApplication;
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.BulkItemResultDTO;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.repository.ThreadViewRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ThreadViewBenchmark class, measures reading first page of single thread with growing number of replies.
+ * With "view" source the page is read from thread view, with "rows" source the view is deleted and the page is read
+ * from QUESTIONS and REPLIES tables. Page size other than default bypasses thread cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadViewBenchmark {
+
+    private static final int BULK_SIZE = 1000;
+
+    @Param({"view", "rows"})
+    private String source;
+
+    @Param({"10", "1000", "10000"})
+    private int replies;
+
+    private ConfigurableApplicationContext context;
+
+    private QuestionService questionService;
+
+    private Long questionId;
+
+    private int uncachedLimit;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    /**
+     * Start application context and create single thread
+     */
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ForumApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--forum.reconciliation.enabled=false",
+                        "--logging.level.root=WARN");
+        questionService = context.getBean(QuestionService.class);
+        QuestionBulkService bulkService = context.getBean(QuestionBulkService.class);
+
+        List<BulkItemResultDTO> results = bulkService.createQuestions(Collections.singletonList(
+                QuestionDTO.builder().author("Question author").message(BenchmarkFixtures.message()).build())).getResults();
+        questionId = results.get(0).getId();
+        List<ReplyDTO> replyBatch = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < replies; i++) {
+            replyBatch.add(ReplyDTO.builder()
+                    .questionId(questionId)
+                    .author("Reply author " + i)
+                    .message(BenchmarkFixtures.message())
+                    .build());
+            if (replyBatch.size() == BULK_SIZE || i == replies - 1) {
+                bulkService.createReplies(replyBatch);
+                replyBatch.clear();
+            }
+        }
+        if ("rows".equals(source)) {
+            context.getBean(ThreadViewRepository.class).deleteById(questionId);
+        }
+        uncachedLimit = context.getBean(ForumProperties.class).getPagination().getDefaultLimit() + 1;
+    }
+
+    /**
+     * Close application context, in-memory database is dropped with it
+     */
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Write first page of thread read from database, as paged thread requests are served
+     *
+     * @return number of written bytes
+     * @throws IOException never, output is in memory
+     */
+    @Benchmark
+    public int firstThreadPage() throws IOException {
+        out.reset();
+        questionService.writeThread(out, questionId, null, uncachedLimit);
+        return out.size();
+    }
+}
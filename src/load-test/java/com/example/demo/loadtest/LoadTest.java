@@ -0,0 +1,491 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoadTest class, starts the application on random port with seeded database and drives configured mix
+ * of requests from concurrent clients. Throughput and latency percentiles are reported per endpoint.
+ * <p>
+ * Clients work in closed loop, next request is sent once previous completes, so under saturation
+ * latencies show service time rather than time requests would wait at fixed arrival rate.
+ * Connection pool timeouts and acquire times during measurement are reported from actuator metrics.
+ * <p>
+ * With memory sampling the application runs in the same JVM as clients, so live heap and threads held per in-flight
+ * request are estimated from full GC samples taken under load, compared with the idle application.
+ */
+public class LoadTest {
+
+    private static final int BULK_SIZE = 1000;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final String MESSAGE = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor "
+            + "incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation.";
+
+    private final LoadTestSettings settings;
+    private final String baseUrl;
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final List<Long> questionIds = new ArrayList<>();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final String limitQuery;
+
+    LoadTest(LoadTestSettings settings, String baseUrl) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+        this.operations = settings.getMix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        this.limitQuery = settings.getLimit() > 0 ? "?limit=" + settings.getLimit() : "";
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += settings.getMix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Run load test, arguments are described in {@link LoadTestSettings}
+     *
+     * @param args parameters in "key=value" form
+     * @throws Exception when application does not start or report cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        // HttpURLConnection keeps only 5 idle connections per host by default, each client needs its own
+        System.setProperty("http.maxConnections", String.valueOf(settings.getClients()));
+
+        List<String> applicationArgs = new ArrayList<>(Arrays.asList(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        applicationArgs.addAll(settings.getApplicationArgs());
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Class.forName(settings.getApplication()))
+                .run(applicationArgs.toArray(new String[0]));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadTest loadTest = new LoadTest(settings, "http://localhost:" + port);
+            // threads are counted against the application before first request, pools keep threads started by warmup
+            MemorySampler memory = settings.isMemory() ? new MemorySampler(settings.getDuration()) : null;
+            loadTest.seed();
+            loadTest.drive(settings.getWarmup(), null);
+            PoolSnapshot poolBefore = loadTest.poolSnapshot();
+            Map<Operation, Result> results = loadTest.drive(settings.getDuration(), memory);
+            PoolSnapshot poolAfter = loadTest.poolSnapshot();
+            loadTest.report(results, poolBefore, poolAfter, memory);
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Create questions and replies through bulk endpoints, or single item endpoints when application has no bulk ones
+     */
+    private void seed() {
+        if (!settings.isBulkSeed()) {
+            for (int i = 0; i < settings.getQuestions(); i++) {
+                JsonNode question = restTemplate.postForObject(baseUrl + "/questions", question(i), JsonNode.class);
+                questionIds.add(question.get("id").asLong());
+            }
+            for (Long questionId : questionIds) {
+                for (int i = 0; i < settings.getRepliesPerQuestion(); i++) {
+                    restTemplate.postForObject(baseUrl + "/questions/{id}/reply", reply(questionId), JsonNode.class, questionId);
+                }
+            }
+            return;
+        }
+        List<Map<String, Object>> batch = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < settings.getQuestions(); i++) {
+            batch.add(question(i));
+            if (batch.size() == BULK_SIZE || i == settings.getQuestions() - 1) {
+                JsonNode response = restTemplate.postForObject(baseUrl + "/questions/bulk", batch, JsonNode.class);
+                response.get("results").forEach(result -> questionIds.add(result.get("id").asLong()));
+                batch.clear();
+            }
+        }
+        for (Long questionId : questionIds) {
+            for (int i = 0; i < settings.getRepliesPerQuestion(); i++) {
+                batch.add(reply(questionId));
+                if (batch.size() == BULK_SIZE) {
+                    restTemplate.postForObject(baseUrl + "/questions/replies/bulk", batch, JsonNode.class);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            restTemplate.postForObject(baseUrl + "/questions/replies/bulk", batch, JsonNode.class);
+        }
+    }
+
+    /**
+     * Drive requests from configured number of clients for given time
+     *
+     * @param duration time of load
+     * @param memory   sampler run alongside clients, null when memory is not sampled
+     * @return results per operation merged from all clients
+     * @throws InterruptedException when interrupted while waiting for clients
+     */
+    private Map<Operation, Result> drive(Duration duration, MemorySampler memory) throws InterruptedException {
+        if (memory != null) {
+            memory.baseline();
+        }
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Client> clients = new ArrayList<>(settings.getClients());
+        List<Thread> threads = new ArrayList<>(settings.getClients());
+        for (int i = 0; i < settings.getClients(); i++) {
+            Client client = new Client(deadline);
+            Thread thread = new Thread(client, "load-client-" + i);
+            clients.add(client);
+            threads.add(thread);
+            thread.start();
+        }
+        if (memory != null) {
+            memory.sample(settings.getClients());
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<Operation, Result> merged = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            merged.put(operation, new Result());
+        }
+        for (Client client : clients) {
+            client.results.forEach((operation, result) -> merged.get(operation).add(result));
+        }
+        return merged;
+    }
+
+    /**
+     * Read connection pool metrics of the application
+     *
+     * @return current values of pool metrics
+     */
+    private PoolSnapshot poolSnapshot() {
+        return new PoolSnapshot(
+                metric("hikaricp.connections.max", "VALUE"),
+                metric("hikaricp.connections.timeout", "COUNT"),
+                metric("hikaricp.connections.acquire", "COUNT"),
+                metric("hikaricp.connections.acquire", "TOTAL_TIME"),
+                metric("hikaricp.connections.acquire", "MAX"));
+    }
+
+    /**
+     * Read single statistic of actuator metric
+     *
+     * @param name      metric name
+     * @param statistic statistic, e.g. COUNT or MAX
+     * @return value of the statistic, 0 when metric is not registered
+     */
+    private double metric(String name, String statistic) {
+        JsonNode metric;
+        try {
+            metric = restTemplate.getForObject(baseUrl + "/actuator/metrics/{name}", JsonNode.class, name);
+        } catch (RestClientException ex) {
+            return 0;
+        }
+        for (JsonNode measurement : metric.get("measurements")) {
+            if (statistic.equals(measurement.get("statistic").asText())) {
+                return measurement.get("value").asDouble();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Print results and write them as JSON to configured output file
+     *
+     * @param results    results per operation
+     * @param poolBefore pool metrics before measurement
+     * @param poolAfter  pool metrics after measurement
+     * @param memory     memory samples, null when memory was not sampled
+     * @throws IOException when report cannot be written
+     */
+    private void report(Map<Operation, Result> results, PoolSnapshot poolBefore, PoolSnapshot poolAfter,
+                        MemorySampler memory) throws IOException {
+        double seconds = settings.getDuration().toMillis() / 1000.0;
+        List<Map<String, Object>> report = new ArrayList<>();
+        System.out.printf("%-28s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        results.forEach((operation, result) -> {
+            Histogram histogram = result.histogram;
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", operation.getEndpoint());
+            row.put("requests", histogram.getTotalCount());
+            row.put("errors", result.errors);
+            row.put("throughput", histogram.getTotalCount() / seconds);
+            row.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+            row.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+            row.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+            row.put("maxMs", millis(histogram.getMaxValue()));
+            report.add(row);
+            System.out.printf("%-28s %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n", row.values().toArray());
+        });
+
+        Map<String, Object> pool = new LinkedHashMap<>();
+        double acquires = poolAfter.acquires - poolBefore.acquires;
+        pool.put("maxConnections", (long) poolAfter.maxConnections);
+        pool.put("timeouts", (long) (poolAfter.timeouts - poolBefore.timeouts));
+        pool.put("acquires", (long) acquires);
+        pool.put("acquireMeanMs", acquires == 0 ? 0 : (poolAfter.acquireSeconds - poolBefore.acquireSeconds) * 1000 / acquires);
+        pool.put("acquireMaxMs", poolAfter.acquireMaxSeconds * 1000);
+        System.out.printf("connection pool: max %d, timeouts %d, acquires %d, acquire mean %.3f ms, recent max %.3f ms%n",
+                pool.values().toArray());
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("clients", settings.getClients());
+        document.put("applicationArgs", settings.getApplicationArgs());
+        document.put("duration", settings.getDuration().toString());
+        document.put("questions", settings.getQuestions());
+        document.put("repliesPerQuestion", settings.getRepliesPerQuestion());
+        document.put("endpoints", report);
+        document.put("connectionPool", pool);
+        if (memory != null) {
+            Map<String, Object> inFlight = new LinkedHashMap<>();
+            inFlight.put("liveHeapKbPerRequest", memory.heapBytesPerRequest() / 1024);
+            inFlight.put("threadsPerRequest", memory.threadsPerRequest());
+            inFlight.put("samples", memory.samples);
+            System.out.printf("in-flight request: live heap %.1f KB, server threads %.3f, %d samples%n", inFlight.values().toArray());
+            document.put("inFlightMemory", inFlight);
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(settings.getOutput().toFile(), document);
+        System.out.println("Results written to " + settings.getOutput().toAbsolutePath());
+    }
+
+    /**
+     * Convert histogram value to milliseconds
+     *
+     * @param micros value in microseconds
+     * @return value in milliseconds
+     */
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Build question request body
+     *
+     * @param i number of question
+     * @return question body
+     */
+    private static Map<String, Object> question(int i) {
+        Map<String, Object> question = new LinkedHashMap<>();
+        question.put("author", "Question author " + i);
+        question.put("message", MESSAGE);
+        return question;
+    }
+
+    /**
+     * Build reply request body
+     *
+     * @param questionId id of question
+     * @return reply body
+     */
+    private static Map<String, Object> reply(Long questionId) {
+        Map<String, Object> reply = new LinkedHashMap<>();
+        reply.put("questionId", questionId);
+        reply.put("author", "Reply author");
+        reply.put("message", MESSAGE);
+        return reply;
+    }
+
+    /**
+     * Latencies of successful requests in microseconds and number of failed requests of single operation
+     */
+    private static final class Result {
+
+        private final Histogram histogram = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        private long errors;
+
+        /**
+         * Add results of other client
+         *
+         * @param other results to add
+         */
+        private void add(Result other) {
+            histogram.add(other.histogram);
+            errors += other.errors;
+        }
+    }
+
+    /**
+     * Cumulative connection pool metrics at single point of time
+     */
+    private static final class PoolSnapshot {
+
+        private final double maxConnections;
+        private final double timeouts;
+        private final double acquires;
+        private final double acquireSeconds;
+        private final double acquireMaxSeconds;
+
+        private PoolSnapshot(double maxConnections, double timeouts, double acquires, double acquireSeconds,
+                             double acquireMaxSeconds) {
+            this.maxConnections = maxConnections;
+            this.timeouts = timeouts;
+            this.acquires = acquires;
+            this.acquireSeconds = acquireSeconds;
+            this.acquireMaxSeconds = acquireMaxSeconds;
+        }
+    }
+
+    /**
+     * Samples live heap and thread count of the JVM while clients run. Every sample forces full GC,
+     * so heap used right after it is the live set, including objects held by requests in flight at that moment.
+     */
+    private static final class MemorySampler {
+
+        private static final int SAMPLES = 5;
+
+        private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        private final Duration duration;
+
+        private final int baselineThreads;
+        private long baselineHeap;
+        private long heapSum;
+        private long threadSum;
+        private int inFlight;
+        private int samples;
+
+        private MemorySampler(Duration duration) {
+            this.duration = duration;
+            this.baselineThreads = threadBean.getThreadCount();
+        }
+
+        /**
+         * Sample live heap of seeded application before clients start
+         */
+        private void baseline() {
+            memoryBean.gc();
+            baselineHeap = memoryBean.getHeapMemoryUsage().getUsed();
+        }
+
+        /**
+         * Take samples evenly spread over the measurement, called from the thread driving clients
+         *
+         * @param clients number of running clients, each has one request in flight
+         * @throws InterruptedException when interrupted while waiting for next sample
+         */
+        private void sample(int clients) throws InterruptedException {
+            inFlight = clients;
+            long interval = duration.toMillis() / (SAMPLES + 1);
+            for (int i = 0; i < SAMPLES; i++) {
+                Thread.sleep(interval);
+                memoryBean.gc();
+                heapSum += memoryBean.getHeapMemoryUsage().getUsed() - baselineHeap;
+                // client threads are not part of the application
+                threadSum += threadBean.getThreadCount() - baselineThreads - clients;
+                samples++;
+            }
+        }
+
+        private double heapBytesPerRequest() {
+            return samples == 0 ? 0 : (double) heapSum / samples / inFlight;
+        }
+
+        private double threadsPerRequest() {
+            return samples == 0 ? 0 : (double) threadSum / samples / inFlight;
+        }
+    }
+
+    /**
+     * Single client, records into its own histograms so clients do not contend
+     */
+    private final class Client implements Runnable {
+
+        private final long deadline;
+
+        private final Map<Operation, Result> results = new EnumMap<>(Operation.class);
+
+        private Client(long deadline) {
+            this.deadline = deadline;
+            for (Operation operation : operations) {
+                results.put(operation, new Result());
+            }
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                Operation operation = pick(random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]));
+                Long questionId = questionIds.get(random.nextInt(questionIds.size()));
+                Result result = results.get(operation);
+                long start = System.nanoTime();
+                try {
+                    execute(operation, questionId);
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                    result.histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                } catch (RestClientException ex) {
+                    result.errors++;
+                }
+            }
+        }
+
+        /**
+         * Pick operation for random number lower than sum of weights
+         *
+         * @param value random number
+         * @return operation
+         */
+        private Operation pick(int value) {
+            int i = 0;
+            while (value >= cumulativeWeights[i]) {
+                i++;
+            }
+            return operations[i];
+        }
+
+        /**
+         * Send single request
+         *
+         * @param operation  operation to execute
+         * @param questionId id of random seeded question
+         */
+        private void execute(Operation operation, Long questionId) {
+            switch (operation) {
+                case LIST:
+                    restTemplate.getForObject(baseUrl + "/questions" + limitQuery, byte[].class);
+                    break;
+                case THREAD:
+                    restTemplate.getForObject(baseUrl + "/questions/{id}" + limitQuery, byte[].class, questionId);
+                    break;
+                case QUESTION:
+                    Map<String, Object> question = new LinkedHashMap<>();
+                    question.put("author", "Load test author");
+                    question.put("message", MESSAGE);
+                    restTemplate.postForObject(baseUrl + "/questions", question, byte[].class);
+                    break;
+                case REPLY:
+                    restTemplate.postForObject(baseUrl + "/questions/{id}/reply", reply(questionId), byte[].class, questionId);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.loadtest;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * LoadTestSettings class, holds load test parameters parsed from "key=value" program arguments.
+ * Arguments starting with "--" are passed to the tested application, e.g. "--spring.threads.virtual.enabled=true".
+ */
+@Getter
+final class LoadTestSettings {
+
+    /**
+     * Number of concurrent clients, each sends next request once previous one completes
+     */
+    private final int clients;
+
+    /**
+     * Time of load before measurement, results are discarded
+     */
+    private final Duration warmup;
+
+    /**
+     * Time of measured load
+     */
+    private final Duration duration;
+
+    /**
+     * Number of questions created before test
+     */
+    private final int questions;
+
+    /**
+     * Number of replies created for each question before test
+     */
+    private final int repliesPerQuestion;
+
+    /**
+     * Relative weights of operations, e.g. "list:40,thread:40,question:5,reply:15"
+     */
+    private final Map<Operation, Integer> mix;
+
+    /**
+     * Page size requested by list and thread reads, 0 means application default
+     */
+    private final int limit;
+
+    /**
+     * Main class of tested application, e.g. com.example.demo.reactive.ReactiveForumApplication
+     */
+    private final String application;
+
+    /**
+     * Whether database is seeded through bulk endpoints, otherwise through single item endpoints
+     */
+    private final boolean bulkSeed;
+
+    /**
+     * Whether live heap and thread count are sampled during measurement, each sample forces full GC
+     */
+    private final boolean memory;
+
+    /**
+     * File the JSON report is written to
+     */
+    private final Path output;
+
+    /**
+     * Arguments the application is started with on top of load test defaults
+     */
+    private final List<String> applicationArgs;
+
+    private LoadTestSettings(Map<String, String> values, List<String> applicationArgs) {
+        this.clients = Integer.parseInt(values.getOrDefault("clients", "32"));
+        this.warmup = Duration.parse(values.getOrDefault("warmup", "PT10S"));
+        this.duration = Duration.parse(values.getOrDefault("duration", "PT60S"));
+        this.questions = Integer.parseInt(values.getOrDefault("questions", "10000"));
+        this.repliesPerQuestion = Integer.parseInt(values.getOrDefault("replies", "10"));
+        this.mix = parseMix(values.getOrDefault("mix", "list:40,thread:40,question:5,reply:15"));
+        this.limit = Integer.parseInt(values.getOrDefault("limit", "0"));
+        this.application = values.getOrDefault("application", "com.example.demo.ForumApplication");
+        this.bulkSeed = !"single".equals(values.getOrDefault("seed", "bulk"));
+        this.memory = Boolean.parseBoolean(values.getOrDefault("memory", "false"));
+        this.output = Paths.get(values.getOrDefault("output", "load-test-result.json"));
+        this.applicationArgs = Collections.unmodifiableList(applicationArgs);
+    }
+
+    /**
+     * Parse program arguments, missing parameters get defaults
+     *
+     * @param args arguments in "key=value" form, or "--key=value" application arguments
+     * @return LoadTestSettings
+     */
+    static LoadTestSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Argument " + arg + " is not in key=value form");
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestSettings(values, applicationArgs);
+    }
+
+    /**
+     * Parse operation mix
+     *
+     * @param mix comma separated "operation:weight" pairs
+     * @return weights of operations, operations not listed are not driven
+     */
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix " + mix + " has no operation with positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.loadtest;
+
+import lombok.Getter;
+
+/**
+ * Operation enum, endpoints driven by load test.
+ */
+@Getter
+enum Operation {
+
+    LIST("GET /questions"),
+    THREAD("GET /questions/{id}"),
+    QUESTION("POST /questions"),
+    REPLY("POST /questions/{id}/reply");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+}
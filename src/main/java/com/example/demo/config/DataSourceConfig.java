@@ -0,0 +1,107 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Data source configuration, read-only transactions are served by read pool and everything else by primary pool.
+ * Primary pool is bound from "spring.datasource" and "spring.datasource.hikari", read pool from "forum.datasource.read".
+ * Reads which must see the latest writes, e.g. reload of thread invalidated by new reply, run in read-write transaction.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Lookup key of primary pool
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * Lookup key of read pool
+     */
+    public static final String READ = "read";
+
+    /**
+     * Pool of connections to primary database, used by writes and by work outside of transactions
+     *
+     * @param dataSourceProperties connection settings of primary database
+     * @return HikariDataSource
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * Settings of read pool
+     *
+     * @return HikariConfig
+     */
+    @Bean
+    @ConfigurationProperties("forum.datasource.read")
+    public HikariConfig readDataSourceConfig() {
+        return new HikariConfig();
+    }
+
+    /**
+     * Pool of connections to read database, used by read-only transactions. Pool is started on creation,
+     * so its idle connections are open before the first read-only request.
+     *
+     * @param readDataSourceConfig settings of read pool
+     * @return HikariDataSource
+     */
+    @Bean
+    public HikariDataSource readDataSource(@Qualifier("readDataSourceConfig") HikariConfig readDataSourceConfig) {
+        return new HikariDataSource(readDataSourceConfig);
+    }
+
+    /**
+     * Data source used by JPA, Flyway and health checks. Physical connection is fetched on first statement,
+     * so the pool is chosen once read-only flag of transaction is known.
+     *
+     * @param primaryDataSource pool of primary database
+     * @param readDataSource    pool of read database
+     * @return DataSource routing connections by transaction read-only flag
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primaryDataSource);
+        targets.put(READ, readDataSource);
+
+        TransactionRoutingDataSource routingDataSource = new TransactionRoutingDataSource();
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Routing data source choosing pool by read-only flag of current transaction
+     */
+    static class TransactionRoutingDataSource extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READ : PRIMARY;
+        }
+    }
+}
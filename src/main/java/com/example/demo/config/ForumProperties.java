@@ -0,0 +1,266 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Forum configuration properties, bound from the "forum" prefix of application.yml
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "forum")
+public class ForumProperties {
+
+    private Id id = new Id();
+
+    private SlowQuery slowQuery = new SlowQuery();
+
+    private Pagination pagination = new Pagination();
+
+    private Reconciliation reconciliation = new Reconciliation();
+
+    private Export export = new Export();
+
+    private Cache cache = new Cache();
+
+    private Bulk bulk = new Bulk();
+
+    private Search search = new Search();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    /**
+     * Id generation settings, passed to Hibernate and Flyway as "forum.id.allocation_size" setting
+     * and "id_allocation_size" placeholder
+     */
+    @Getter
+    @Setter
+    public static class Id {
+
+        /**
+         * Number of ids allocated with single sequence call, equal to INCREMENT BY of QUESTION_SEQ and REPLY_SEQ.
+         * Sequences are created with it by V2 migration only, application does not start when it differs from them,
+         * changing it for existing database requires migration altering both sequences.
+         */
+        private int allocationSize = 50;
+    }
+
+    /**
+     * Slow query log settings, passed to Hibernate as "hibernate.log_slow_query" setting.
+     * Slow queries are logged by org.hibernate.SQL_SLOW logger at INFO level.
+     */
+    @Getter
+    @Setter
+    public static class SlowQuery {
+
+        /**
+         * Execution time in milliseconds above which query is logged, 0 disables the log
+         */
+        private long thresholdMs = 0;
+    }
+
+    /**
+     * Page size settings for keyset paginated listings
+     */
+    @Getter
+    @Setter
+    public static class Pagination {
+
+        /**
+         * Page size used when request does not specify a limit
+         */
+        private int defaultLimit = 20;
+
+        /**
+         * Upper bound of page size, larger limits are capped to this value
+         */
+        private int maxLimit = 100;
+
+        /**
+         * Resolve page size from requested limit and configured bounds
+         *
+         * @param limit requested page size, may be null
+         * @return page size between 1 and configured maximum
+         */
+        public int pageSize(Integer limit) {
+            if (limit == null) {
+                return defaultLimit;
+            }
+            return Math.max(1, Math.min(limit, maxLimit));
+        }
+    }
+
+    /**
+     * Settings of job repairing drift of denormalized reply counts
+     */
+    @Getter
+    @Setter
+    public static class Reconciliation {
+
+        /**
+         * Whether the job is scheduled
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of questions repaired in single transaction
+         */
+        private int batchSize = 500;
+
+        /**
+         * Delay between job runs, ISO-8601 duration
+         */
+        private Duration interval = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Settings of streaming export
+     */
+    @Getter
+    @Setter
+    public static class Export {
+
+        /**
+         * Number of exported rows after which persistence context is cleared
+         */
+        private int clearInterval = 1000;
+    }
+
+    /**
+     * Settings of in-process caches
+     */
+    @Getter
+    @Setter
+    public static class Cache {
+
+        private ThreadCache thread = new ThreadCache();
+    }
+
+    /**
+     * Settings of cache of thread first pages
+     */
+    @Getter
+    @Setter
+    public static class ThreadCache {
+
+        /**
+         * Maximum number of threads cached on heap, threads evicted by size are moved to mapped tier
+         */
+        private long maxSize = 1_000;
+
+        /**
+         * Time after which cached thread expires
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * Whether threads are cached as final UTF-8 JSON bytes, so hits skip serialization
+         */
+        private boolean serialized = true;
+
+        /**
+         * Whether concurrent misses of the same thread share single database load
+         */
+        private boolean singleFlight = true;
+
+        private MappedThreadCache mapped = new MappedThreadCache();
+    }
+
+    /**
+     * Settings of cold tier of thread cache, serialized threads are kept in memory-mapped file outside of Java heap
+     */
+    @Getter
+    @Setter
+    public static class MappedThreadCache {
+
+        /**
+         * Whether threads evicted from heap are moved to mapped tier, enabled by production profile
+         */
+        private boolean enabled;
+
+        /**
+         * Size of the mapped file, the oldest threads are overwritten when it is full, at most 2GB
+         */
+        private DataSize capacity = DataSize.ofMegabytes(256);
+
+        /**
+         * Directory of the mapped file, default temporary directory when empty
+         */
+        private String directory = "";
+    }
+
+    /**
+     * Settings of bulk endpoints
+     */
+    @Getter
+    @Setter
+    public static class Bulk {
+
+        /**
+         * Maximum number of items in single bulk request
+         */
+        private int maxItems = 1000;
+    }
+
+    /**
+     * Settings of full-text search index
+     */
+    @Getter
+    @Setter
+    public static class Search {
+
+        /**
+         * Filesystem directory of the index, index is kept in memory when empty
+         */
+        private String directory = "";
+
+        /**
+         * Whether index is rebuilt from database on startup, by default only when index is kept in memory
+         */
+        private Boolean rebuildOnStartup;
+
+        /**
+         * Maximum time after which indexed posts become visible to search
+         */
+        private Duration refreshInterval = Duration.ofSeconds(1);
+
+        /**
+         * Number of best matches which can be paged through
+         */
+        private int maxResults = 1000;
+    }
+
+    /**
+     * Settings of asynchronous reply creation, replies are accepted into a queue and inserted in batches by background writer
+     */
+    @Getter
+    @Setter
+    public static class WriteBehind {
+
+        /**
+         * Whether replies are written asynchronously, POST of reply returns 202 Accepted instead of 201 Created
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of accepted replies waiting for insert, further replies are rejected with 429
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * Maximum number of replies inserted in single transaction
+         */
+        private int batchSize = 500;
+
+        /**
+         * Time given to writer to drain the queue on shutdown
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Metrics configuration, enables {@link io.micrometer.core.annotation.Timed} on beans
+ * and per request count of SQL statements
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Aspect timing methods annotated with {@link io.micrometer.core.annotation.Timed}
+     *
+     * @param meterRegistry registry of meters
+     * @return TimedAspect
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Counter of SQL statements, shared by Hibernate and web interceptor
+     *
+     * @return SqlStatementCounter
+     */
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    /**
+     * Register SQL statement counter as Hibernate statement inspector
+     *
+     * @param sqlStatementCounter counter of SQL statements
+     * @return HibernatePropertiesCustomizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    /**
+     * Register interceptor recording SQL statements per request
+     *
+     * @param sqlStatementCounter counter of SQL statements
+     * @param meterRegistry       registry of meters
+     * @return WebMvcConfigurer
+     */
+    @Bean
+    public WebMvcConfigurer sqlStatementMetricsConfigurer(SqlStatementCounter sqlStatementCounter, MeterRegistry meterRegistry) {
+        SqlStatementMetricsInterceptor interceptor = new SqlStatementMetricsInterceptor(sqlStatementCounter, meterRegistry);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor);
+            }
+        };
+    }
+}
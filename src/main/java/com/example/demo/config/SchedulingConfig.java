@@ -0,0 +1,14 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background jobs, can be switched off with forum.reconciliation.enabled=false
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "forum.reconciliation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
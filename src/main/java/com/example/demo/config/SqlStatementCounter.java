@@ -0,0 +1,46 @@
+package com.example.demo.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate statement inspector counting SQL statements prepared by current thread.
+ * Counting happens only between {@link #start()} and {@link #stop()}, statements of other threads,
+ * e.g. scheduled jobs, are ignored.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    /**
+     * Count statement of current thread if counting is started, statement is not changed
+     *
+     * @param sql statement to be prepared
+     * @return the same statement
+     */
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * Start counting statements of current thread from zero
+     */
+    public void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * Stop counting statements of current thread
+     *
+     * @return number of statements since start, 0 if counting was not started
+     */
+    public int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
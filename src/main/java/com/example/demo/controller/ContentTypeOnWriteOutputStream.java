@@ -0,0 +1,61 @@
+package com.example.demo.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream of response which sets content type of response right before first byte is written.
+ * Page written by service is checked and looked up before anything is written, when that fails the error response
+ * keeps its own content type instead of the one of the page.
+ */
+class ContentTypeOnWriteOutputStream extends OutputStream {
+
+    private final HttpServletResponse response;
+    private final String contentType;
+    private OutputStream out;
+
+    ContentTypeOnWriteOutputStream(HttpServletResponse response, String contentType) {
+        this.response = response;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+    }
+
+    /**
+     * Set content type and open output stream of response on first write
+     *
+     * @return output stream of response
+     * @throws IOException when output stream cannot be opened
+     */
+    private OutputStream out() throws IOException {
+        if (out == null) {
+            response.setContentType(contentType);
+            out = response.getOutputStream();
+        }
+        return out;
+    }
+}
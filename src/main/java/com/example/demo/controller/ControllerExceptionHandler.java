@@ -1,6 +1,9 @@
 package com.example.demo.controller;
 
+import com.example.demo.exception.BulkLimitExceededException;
+import com.example.demo.exception.InvalidCursorException;
 import com.example.demo.exception.QuestionNotFoundException;
+import com.example.demo.exception.WriteQueueFullException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -27,4 +30,42 @@ public class ControllerExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), new HttpHeaders(), HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Wrap {@link InvalidCursorException} class exception to 400 HTTP Status - BAD_REQUEST
+     *
+     * @param ex InvalidCursorException
+     * @return responseEntity
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException ex) {
+        log.debug(ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), new HttpHeaders(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Wrap {@link BulkLimitExceededException} class exception to 413 HTTP Status - PAYLOAD_TOO_LARGE
+     *
+     * @param ex BulkLimitExceededException
+     * @return responseEntity
+     */
+    @ExceptionHandler(BulkLimitExceededException.class)
+    public ResponseEntity<String> handleBulkLimitExceededException(BulkLimitExceededException ex) {
+        log.debug(ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), new HttpHeaders(), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Wrap {@link WriteQueueFullException} class exception to 429 HTTP Status - TOO_MANY_REQUESTS
+     *
+     * @param ex WriteQueueFullException
+     * @return responseEntity
+     */
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<String> handleWriteQueueFullException(WriteQueueFullException ex) {
+        log.debug(ex.getMessage());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(ex.getMessage(), headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
 }
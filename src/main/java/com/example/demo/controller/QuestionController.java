@@ -1,19 +1,35 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BulkResultDTO;
 import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.QuestionPageDTO;
 import com.example.demo.dto.ReplyDTO;
-import com.example.demo.dto.ThreadDTO;
+import com.example.demo.dto.SearchResultDTO;
+import com.example.demo.service.QuestionBulkService;
+import com.example.demo.service.QuestionExportService;
+import com.example.demo.service.QuestionSearchService;
 import com.example.demo.service.QuestionService;
+import com.example.demo.service.RenderedThread;
+import com.example.demo.service.ReplyWriteBehind;
+import com.example.demo.service.ThreadCache;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.validation.Valid;
-import javax.validation.constraints.NotNull;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -22,10 +38,24 @@ import java.util.List;
 @RestController
 public class QuestionController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final QuestionService questionService;
+    private final QuestionExportService questionExportService;
+    private final QuestionBulkService questionBulkService;
+    private final QuestionSearchService questionSearchService;
+    private final ReplyWriteBehind replyWriteBehind;
+    private final ThreadCache threadCache;
 
-    public QuestionController(QuestionService questionService) {
+    public QuestionController(QuestionService questionService, QuestionExportService questionExportService,
+                              QuestionBulkService questionBulkService, QuestionSearchService questionSearchService,
+                              ReplyWriteBehind replyWriteBehind, ThreadCache threadCache) {
         this.questionService = questionService;
+        this.questionExportService = questionExportService;
+        this.questionBulkService = questionBulkService;
+        this.questionSearchService = questionSearchService;
+        this.replyWriteBehind = replyWriteBehind;
+        this.threadCache = threadCache;
     }
 
     /**
@@ -42,36 +72,129 @@ public class QuestionController {
 
     /**
      * Http POST request, allows to create new Replay for given Question.
+     * In write-behind mode reply is only accepted for asynchronous insert and 202 ACCEPTED is returned,
+     * 429 TOO_MANY_REQUESTS when write queue is full.
      *
      * @param replyDTO   require author and message.
      * @param questionId id of Question
      * @return ReplayDTO with related database ID and Question ID.
      */
     @PostMapping("/questions/{questionId}/reply")
-    @ResponseStatus(HttpStatus.CREATED)
-    public ReplyDTO createReply(@RequestBody @Valid ReplyDTO replyDTO, @PathVariable("questionId") @NotNull Long questionId) {
-        return questionService.createReply(replyDTO, questionId);
+    public ResponseEntity<ReplyDTO> createReply(@RequestBody @Valid ReplyDTO replyDTO, @PathVariable("questionId") @NotNull Long questionId) {
+        if (replyWriteBehind.isEnabled()) {
+            return ResponseEntity.accepted().body(replyWriteBehind.submit(replyDTO, questionId));
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(questionService.createReply(replyDTO, questionId));
+    }
+
+    /**
+     * Http POST request, allows to create many Questions at once. Invalid items do not stop valid ones from being created.
+     *
+     * @param questionDTOs list of questions, each require author and message.
+     * @return BulkResultDTO with outcome and database ID of each item.
+     */
+    @PostMapping("/questions/bulk")
+    public BulkResultDTO createQuestions(@RequestBody List<QuestionDTO> questionDTOs) {
+        return questionBulkService.createQuestions(questionDTOs);
+    }
+
+    /**
+     * Http POST request, allows to create many Replies, possibly to different Questions, at once.
+     * Invalid items and items of not existing Questions do not stop valid ones from being created.
+     *
+     * @param replyDTOs list of replies, each require questionId, author and message.
+     * @return BulkResultDTO with outcome and database ID of each item.
+     */
+    @PostMapping("/questions/replies/bulk")
+    public BulkResultDTO createReplies(@RequestBody List<ReplyDTO> replyDTOs) {
+        return questionBulkService.createReplies(replyDTOs);
     }
 
     /**
-     * Http GET request, as a path parameter takes Question Id and returns Question with all related Replies.
+     * Http GET request, as a path parameter takes Question Id and returns Question with single page of related Replies.
+     * First page is returned with strong ETag, when If-None-Match header matches ETag of cached thread
+     * 304 NOT_MODIFIED is returned without reaching service. Otherwise returned thread is sent with its own ETag,
+     * even when reply changed it after cached ETag was checked. Cached JSON bytes are written to response as they are.
+     * Other pages are not cached, they are written to response while replies are read from database.
      *
      * @param questionId id of Question.
-     * @return ThreadDTO with represent Question and related Replies.
+     * @param after      cursor returned with previous replies page, first page is returned when missing
+     * @param limit      maximum number of replies on page, default is used when missing
+     * @param request    current request, used for conditional request check
+     * @param response   current response, pages other than cached one are written to it directly
+     * @return ThreadDTO or its JSON with represent Question and page of related Replies, null when already written.
+     * @throws IOException when writing to response fails
      */
     @GetMapping("/questions/{questionId}")
-    public ThreadDTO getThread(@PathVariable("questionId") Long questionId) {
-        return questionService.getThread(questionId);
+    public ResponseEntity<?> getThread(@PathVariable("questionId") Long questionId,
+                                       @RequestParam(value = "after", required = false) String after,
+                                       @RequestParam(value = "limit", required = false) Integer limit,
+                                       WebRequest request, HttpServletResponse response) throws IOException {
+        if (after != null || limit != null) {
+            // content type is set once page is being written, errors of cursor and lookup are answered in their own
+            questionService.writeThread(new ContentTypeOnWriteOutputStream(response, MediaType.APPLICATION_JSON_VALUE),
+                    questionId, after, limit);
+            return null;
+        }
+
+        String cachedEtag = threadCache.etag(questionId);
+        if (cachedEtag != null && request.checkNotModified(cachedEtag)) {
+            return null;
+        }
+        RenderedThread thread = questionService.getRenderedThread(questionId);
+        // check above sets ETag it compared, thread may have changed since then, so header is replaced by ETag of body
+        response.setHeader(HttpHeaders.ETAG, thread.getEtag());
+        if (request.checkNotModified(thread.getEtag())) {
+            return null;
+        }
+        if (thread.getJson() == null) {
+            return ResponseEntity.ok().body(thread.getThread());
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(thread.getJson());
     }
 
     /**
-     * Http GET request, returns all existing questions
+     * Http GET request, returns single page of existing questions ordered by id.
      *
-     * @return a list of all existing Questions
+     * @param after cursor returned with previous page, first page is returned when missing
+     * @param limit maximum number of questions on page, default is used when missing
+     * @return page of Questions with cursor to the next page
      */
     @GetMapping("/questions")
-    public List<QuestionDTO> getAllQuestions() {
-        return questionService.getAllQuestions();
+    public QuestionPageDTO getAllQuestions(@RequestParam(value = "after", required = false) String after,
+                                           @RequestParam(value = "limit", required = false) Integer limit) {
+        return questionService.getAllQuestions(after, limit);
+    }
+
+    /**
+     * Http GET request, returns single page of questions and replies with message matching query, best matches first.
+     *
+     * @param query query text, all terms are required
+     * @param after cursor returned with previous page, first page is returned when missing
+     * @param limit maximum number of hits on page, default is used when missing
+     * @return page of hits with cursor to the next page
+     */
+    @GetMapping("/questions/search")
+    public SearchResultDTO search(@RequestParam("q") String query,
+                                  @RequestParam(value = "after", required = false) String after,
+                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        return questionSearchService.search(query, after, limit);
+    }
+
+    /**
+     * Http GET request, streams all existing questions as newline delimited JSON, one question per line.
+     *
+     * @param replies whether replies are inlined into each question line
+     * @return streaming body, written on async thread
+     */
+    @GetMapping(value = "/questions/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportQuestions(@RequestParam(value = "replies", defaultValue = "false") boolean replies) {
+        StreamingResponseBody body = out -> questionExportService.exportQuestions(out, replies);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
     }
 
 }
@@ -0,0 +1,45 @@
+package com.example.demo.controller;
+
+import com.example.demo.exception.SearchIndexRebuildRunningException;
+import com.example.demo.service.QuestionSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing search index maintenance at /actuator/searchindex
+ */
+@Slf4j
+@Component
+@Endpoint(id = "searchindex")
+public class SearchIndexEndpoint {
+
+    private final QuestionSearchService questionSearchService;
+
+    public SearchIndexEndpoint(QuestionSearchService questionSearchService) {
+        this.questionSearchService = questionSearchService;
+    }
+
+    /**
+     * Http POST request, rebuilds search index from database.
+     * When rebuild is already running 409 CONFLICT is returned.
+     *
+     * @return number of indexed posts, or error message with 409 CONFLICT status
+     */
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> rebuild() {
+        try {
+            return new WebEndpointResponse<>(Collections.singletonMap("indexed", questionSearchService.rebuild()));
+        } catch (SearchIndexRebuildRunningException ex) {
+            log.debug(ex.getMessage());
+            return new WebEndpointResponse<>(Collections.singletonMap("error", ex.getMessage()),
+                    HttpStatus.CONFLICT.value());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.ThreadViews;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Actuator endpoint exposing thread view maintenance at /actuator/threadviews
+ */
+@Slf4j
+@Component
+@Endpoint(id = "threadviews")
+public class ThreadViewEndpoint {
+
+    public static final String REBUILD_RUNNING_MESSAGE = "Thread view rebuild is already running.";
+
+    private final ThreadViews threadViews;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ThreadViewEndpoint(ThreadViews threadViews) {
+        this.threadViews = threadViews;
+    }
+
+    /**
+     * Http GET request, tells if rebuild of thread views is running.
+     *
+     * @return whether rebuild is running
+     */
+    @ReadOperation
+    public Map<String, Boolean> status() {
+        return Collections.singletonMap("running", running.get());
+    }
+
+    /**
+     * Http POST request, starts rebuild of thread views of all questions from database in background thread,
+     * so the request does not hold a server thread for the whole walk. Only one rebuild runs at a time,
+     * when rebuild is already running 409 CONFLICT is returned.
+     *
+     * @return started flag, or error message with 409 CONFLICT status
+     */
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug(REBUILD_RUNNING_MESSAGE);
+            return new WebEndpointResponse<>(Collections.singletonMap("error", REBUILD_RUNNING_MESSAGE),
+                    HttpStatus.CONFLICT.value());
+        }
+        Thread rebuild = new Thread(() -> {
+            try {
+                threadViews.rebuildAll();
+            } catch (RuntimeException ex) {
+                log.error("Thread view rebuild failed", ex);
+            } finally {
+                running.set(false);
+            }
+        }, "thread-view-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+        return new WebEndpointResponse<>(Collections.singletonMap("started", true));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * BulkItemResultDTO class, holds outcome of single item of bulk request.
+ * Status mirrors HTTP status which single item endpoint would return.
+ */
+@Getter
+@Builder
+public class BulkItemResultDTO {
+
+    private final int index;
+
+    private final int status;
+
+    private final Long id;
+
+    private final String error;
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * BulkResultDTO class, holds per item outcome of bulk request in order of request items.
+ */
+@Getter
+@Builder
+public class BulkResultDTO {
+
+    private final int created;
+
+    private final int failed;
+
+    private final List<BulkItemResultDTO> results;
+}
@@ -1,16 +1,18 @@
 package com.example.demo.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
-import javax.validation.constraints.NotBlank;
-import javax.validation.constraints.NotNull;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 
 /**
  * Question DTO class, holds information about question
  */
 @Getter
 @Builder
+@AllArgsConstructor
 public class QuestionDTO {
 
     private final Long id;
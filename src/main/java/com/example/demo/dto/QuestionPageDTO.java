@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * QuestionPageDTO class, holds a single page of questions and cursor pointing to the next page.
+ */
+@Getter
+@Builder
+public class QuestionPageDTO {
+
+    private final List<QuestionDTO> questions;
+
+    private final String nextCursor;
+}
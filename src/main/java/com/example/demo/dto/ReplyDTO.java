@@ -1,16 +1,18 @@
 package com.example.demo.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
-import javax.validation.constraints.NotBlank;
-import javax.validation.constraints.NotNull;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 
 /**
  * ReplyDTO class, holds information about reply and Id of associated question
  */
 @Getter
 @Builder
+@AllArgsConstructor
 public class ReplyDTO {
 
     private final Long questionId;
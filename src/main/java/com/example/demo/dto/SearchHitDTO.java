@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * SearchHitDTO class, holds single question or reply matching search query.
+ * Reply id is null when question itself matches.
+ */
+@Getter
+@Builder
+public class SearchHitDTO {
+
+    private final Long questionId;
+
+    private final Long replyId;
+
+    private final String author;
+
+    private final String message;
+
+    private final float score;
+}
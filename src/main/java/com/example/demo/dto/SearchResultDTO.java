@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * SearchResultDTO class, holds single page of search hits ordered by relevance and cursor pointing to the next page.
+ */
+@Getter
+@Builder
+public class SearchResultDTO {
+
+    private final List<SearchHitDTO> hits;
+
+    private final String nextCursor;
+}
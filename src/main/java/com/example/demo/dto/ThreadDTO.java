@@ -1,16 +1,18 @@
 package com.example.demo.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
-import javax.validation.constraints.NotNull;
+import jakarta.validation.constraints.NotNull;
 import java.util.List;
 
 /**
- * ThreadDTO class, holds information about question and associated replies.
+ * ThreadDTO class, holds information about question and single page of associated replies.
  */
 @Getter
 @Builder
+@AllArgsConstructor
 public class ThreadDTO {
 
     private final Long id;
@@ -20,4 +22,8 @@ public class ThreadDTO {
     private final String message;
 
     private final List<ThreadReplyDTO> replies;
+
+    private final Long totalReplies;
+
+    private final String nextCursor;
 }
@@ -1,15 +1,17 @@
 package com.example.demo.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
-import javax.validation.constraints.NotNull;
+import jakarta.validation.constraints.NotNull;
 
 /**
  * ThreadReplyDTO class, holds information about reply. It is not pointing to related question.
  */
 @Getter
 @Builder
+@AllArgsConstructor
 public class ThreadReplyDTO {
 
     private final Long id;
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * ThreadRowDTO class, holds question joined with one of its replies. Reply fields are null for question
+ * without replies.
+ */
+@Getter
+@AllArgsConstructor
+public class ThreadRowDTO {
+
+    private final Long questionId;
+    private final String questionAuthor;
+    private final String questionMessage;
+    private final Long replyId;
+    private final String replyAuthor;
+    private final String replyMessage;
+}
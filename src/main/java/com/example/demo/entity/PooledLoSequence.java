@@ -0,0 +1,24 @@
+package com.example.demo.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks id generated by {@link PooledLoSequenceGenerator} from given database sequence.
+ */
+@IdGeneratorType(PooledLoSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface PooledLoSequence {
+
+    /**
+     * @return name of database sequence
+     */
+    String name();
+}
@@ -5,13 +5,13 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
-import javax.persistence.CascadeType;
-import javax.persistence.Column;
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.Id;
-import javax.persistence.OneToMany;
-import javax.persistence.Table;
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.Table;
 import java.util.List;
 
 /**
@@ -26,7 +26,7 @@ import java.util.List;
 public class Question {
 
     @Id
-    @GeneratedValue
+    @PooledLoSequence(name = "QUESTION_SEQ")
     private Long id;
 
     @Column(nullable = false)
@@ -35,6 +35,13 @@ public class Question {
     @Column(nullable = false)
     private String message;
 
+    /**
+     * Denormalized number of replies, maintained with atomic update on reply creation
+     */
+    @Column(nullable = false)
+    private long replyCount;
+
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "question")
+    @OrderBy("id ASC")
     private List<Reply> replies;
 }
@@ -6,12 +6,15 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import javax.persistence.Column;
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.Id;
-import javax.persistence.ManyToOne;
-import javax.persistence.Table;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 
 /**
  * Replay class, represents a database entity.
@@ -22,11 +25,11 @@ import javax.persistence.Table;
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "REPLIES")
+@Table(name = "REPLIES", indexes = @Index(name = "IDX_REPLIES_QUESTION_ID_ID", columnList = "question_id, id"))
 public class Reply {
 
     @Id
-    @GeneratedValue
+    @PooledLoSequence(name = "REPLY_SEQ")
     private Long id;
 
     @Column(nullable = false)
@@ -35,6 +38,7 @@ public class Reply {
     @Column(nullable = false)
     private String message;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(foreignKey = @ForeignKey(name = "FK_REPLIES_QUESTION_ID"))
     private Question question;
 }
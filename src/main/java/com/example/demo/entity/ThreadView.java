@@ -0,0 +1,47 @@
+package com.example.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * ThreadView class, represents a database entity. Materialized first page of thread, question and its replies
+ * with lowest ids serialized into single document, maintained in transactions which insert replies.
+ */
+@Getter
+@Builder
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "THREAD_VIEWS")
+public class ThreadView {
+
+    /**
+     * Maximum length of document in bytes
+     */
+    public static final int MAX_DOCUMENT_LENGTH = 1_000_000;
+
+    @Id
+    private Long questionId;
+
+    /**
+     * Number of replies held in document
+     */
+    @Column(nullable = false)
+    private int replyCount;
+
+    /**
+     * Id of the last reply held in document, 0 when there is none
+     */
+    @Column(nullable = false)
+    private long lastReplyId;
+
+    @Column(nullable = false, length = MAX_DOCUMENT_LENGTH)
+    private byte[] document;
+}
@@ -0,0 +1,13 @@
+package com.example.demo.exception;
+
+/**
+ * Runtime exception thrown when bulk request holds more items than allowed.
+ */
+public class BulkLimitExceededException extends RuntimeException {
+
+    public static final String ERROR_MESSAGE_FORMAT = "Bulk request holds %d items, at most %d are allowed.";
+
+    public BulkLimitExceededException(int size, int maxItems) {
+        super(String.format(ERROR_MESSAGE_FORMAT, size, maxItems));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.exception;
+
+/**
+ * Runtime exception thrown when pagination cursor cannot be decoded.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public static final String ERROR_MESSAGE_FORMAT = "Cursor:%s is not valid.";
+
+    public InvalidCursorException(String cursor) {
+        super(String.format(ERROR_MESSAGE_FORMAT, cursor));
+    }
+}
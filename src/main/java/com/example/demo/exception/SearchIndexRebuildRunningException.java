@@ -0,0 +1,13 @@
+package com.example.demo.exception;
+
+/**
+ * Runtime exception thrown when search index rebuild is requested while another one is running.
+ */
+public class SearchIndexRebuildRunningException extends RuntimeException {
+
+    public static final String ERROR_MESSAGE = "Search index rebuild is already running.";
+
+    public SearchIndexRebuildRunningException() {
+        super(ERROR_MESSAGE);
+    }
+}
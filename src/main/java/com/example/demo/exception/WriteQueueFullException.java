@@ -0,0 +1,13 @@
+package com.example.demo.exception;
+
+/**
+ * Runtime exception thrown when write queue cannot accept more items.
+ */
+public class WriteQueueFullException extends RuntimeException {
+
+    public static final String ERROR_MESSAGE_FORMAT = "Write queue of %d items is full, retry later.";
+
+    public WriteQueueFullException(int capacity) {
+        super(String.format(ERROR_MESSAGE_FORMAT, capacity));
+    }
+}
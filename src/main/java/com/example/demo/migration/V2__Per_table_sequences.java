@@ -0,0 +1,40 @@
+package com.example.demo.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves QUESTIONS and REPLIES ids from global hibernate_sequence to sequence per table.
+ * Each sequence restarts after the highest id already stored in its table, so existing ids stay valid,
+ * and is incremented by id allocation size used by pooled-lo optimizer.
+ */
+public class V2__Per_table_sequences extends BaseJavaMigration {
+
+    static final String ALLOCATION_SIZE_PLACEHOLDER = "id_allocation_size";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        int allocationSize = Integer.parseInt(context.getConfiguration().getPlaceholders().get(ALLOCATION_SIZE_PLACEHOLDER));
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            createSequence(statement, "question_seq", "questions", allocationSize);
+            createSequence(statement, "reply_seq", "replies", allocationSize);
+            statement.execute("drop sequence if exists hibernate_sequence");
+        }
+    }
+
+    private static void createSequence(Statement statement, String sequence, String table, int allocationSize) throws SQLException {
+        long start;
+        try (ResultSet maxId = statement.executeQuery("select coalesce(max(id), 0) + 1 from " + table)) {
+            maxId.next();
+            start = maxId.getLong(1);
+        }
+        statement.execute("create sequence if not exists " + sequence + " start with " + start + " increment by " + allocationSize);
+        statement.execute("alter sequence " + sequence + " restart with " + start + " increment by " + allocationSize);
+    }
+}
@@ -1,10 +1,126 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ThreadRowDTO;
 import com.example.demo.entity.Question;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Question repository interface, extends Spring Data interface to provide CRUD methods on QUESTIONS table.
  */
 public interface QuestionRepository extends JpaRepository<Question, Long> {
+
+    /**
+     * Number of rows fetched from database in single round trip by streaming queries
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Streams all questions ordered by id over forward-only cursor, stream has to be consumed and closed
+     * inside transaction. Entities are loaded read-only.
+     *
+     * @return stream of all questions
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select q from Question q order by q.id")
+    Stream<Question> streamAll();
+
+    /**
+     * Streams all questions joined with their replies over forward-only cursor, ordered by question id and reply id,
+     * so replies of each question are adjacent. Question without replies has single row. Stream has to be consumed
+     * and closed inside transaction.
+     *
+     * @return stream of question and reply rows
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select new com.example.demo.dto.ThreadRowDTO(q.id, q.author, q.message, r.id, r.author, r.message) " +
+            "from Question q left join q.replies r order by q.id, r.id")
+    Stream<ThreadRowDTO> streamThreads();
+
+    /**
+     * Streams all questions projected into QuestionDTO over forward-only cursor, stream has to be consumed and closed
+     * inside transaction. Order is not defined.
+     *
+     * @return stream of all questions
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select new com.example.demo.dto.QuestionDTO(q.id, q.author, q.message, q.replyCount) from Question q")
+    Stream<QuestionDTO> streamQuestions();
+
+    /**
+     * Keyset (seek) page of questions ordered by id, projected directly into QuestionDTO together with
+     * denormalized reply count, so whole page is read in one statement without touching REPLIES table.
+     * Pageable is expected to always request first page so query is executed without OFFSET.
+     *
+     * @param after    id after which page starts
+     * @param pageable holds page size
+     * @return list of QuestionDTO with id greater than given one
+     */
+    @Query("select new com.example.demo.dto.QuestionDTO(q.id, q.author, q.message, q.replyCount) " +
+            "from Question q " +
+            "where q.id > :after " +
+            "order by q.id")
+    List<QuestionDTO> findQuestionPage(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Keyset (seek) page of question ids ordered by id
+     *
+     * @param after    id after which page starts
+     * @param pageable holds page size
+     * @return list of ids greater than given one
+     */
+    @Query("select q.id from Question q where q.id > :after order by q.id")
+    List<Long> findIdPage(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Ids of existing questions from given ones
+     *
+     * @param ids ids of questions
+     * @return ids which exist in QUESTIONS table
+     */
+    @Query("select q.id from Question q where q.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Atomically increments denormalized reply count, must be executed in transaction which inserts the replies.
+     *
+     * @param id    id of question
+     * @param delta number of inserted replies
+     * @return number of updated rows, 0 when question does not exist
+     */
+    @Modifying
+    @Query("update Question q set q.replyCount = q.replyCount + :delta where q.id = :id")
+    int incrementReplyCount(@Param("id") Long id, @Param("delta") long delta);
+
+    /**
+     * Recalculates reply count from REPLIES table for questions with id in given range, only drifted rows are updated.
+     * Runs in its own transaction so each range is committed separately.
+     *
+     * @param from first id of range, inclusive
+     * @param to   last id of range, inclusive
+     * @return number of repaired questions
+     */
+    @Transactional
+    @Modifying
+    @Query("update Question q set q.replyCount = (select count(r.id) from Reply r where r.question.id = q.id) " +
+            "where q.id between :from and :to " +
+            "and q.replyCount <> (select count(r.id) from Reply r where r.question.id = q.id)")
+    int reconcileReplyCounts(@Param("from") Long from, @Param("to") Long to);
 }
@@ -1,10 +1,59 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.dto.ThreadReplyDTO;
 import com.example.demo.entity.Reply;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Reply repository interface, extends Spring Data interface to provide CRUD methods on REPLIES table.
  */
 public interface ReplyRepository extends JpaRepository<Reply, Long> {
+
+    /**
+     * Keyset (seek) page of replies of given question ordered by id, served by (question_id, id) index range scan.
+     * Pageable is expected to always request first page so query is executed without OFFSET.
+     *
+     * @param questionId id of question
+     * @param after      id after which page starts
+     * @param pageable   holds page size
+     * @return list of replies with id greater than given one
+     */
+    @Query("select r from Reply r where r.question.id = :questionId and r.id > :after order by r.id")
+    List<Reply> findReplyPage(@Param("questionId") Long questionId, @Param("after") Long after, Pageable pageable);
+
+    /**
+     * Streams keyset (seek) page of replies of given question projected into ThreadReplyDTO over forward-only cursor,
+     * ordered by id. Stream has to be consumed and closed inside transaction.
+     *
+     * @param questionId id of question
+     * @param after      id after which page starts
+     * @param limit      maximum number of replies
+     * @return stream of replies with id greater than given one
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = QuestionRepository.STREAM_FETCH_SIZE))
+    @Query("select new com.example.demo.dto.ThreadReplyDTO(r.id, r.author, r.message) from Reply r " +
+            "where r.question.id = :questionId and r.id > :after order by r.id")
+    Stream<ThreadReplyDTO> streamReplyPage(@Param("questionId") Long questionId, @Param("after") Long after, Limit limit);
+
+    /**
+     * Streams all replies projected into ReplyDTO over forward-only cursor, question id is read from foreign key
+     * without join. Stream has to be consumed and closed inside transaction. Order is not defined.
+     *
+     * @return stream of all replies
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = QuestionRepository.STREAM_FETCH_SIZE))
+    @Query("select new com.example.demo.dto.ReplyDTO(r.question.id, r.id, r.author, r.message) from Reply r")
+    Stream<ReplyDTO> streamReplies();
 }
@@ -0,0 +1,83 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ThreadView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Thread view repository interface, extends Spring Data interface to provide CRUD methods on THREAD_VIEWS table.
+ */
+public interface ThreadViewRepository extends JpaRepository<ThreadView, Long> {
+
+    /**
+     * Reads document of thread together with denormalized reply count of its question, single primary key lookup
+     * of each table.
+     *
+     * @param questionId id of question
+     * @return document of thread, empty when thread view does not exist
+     */
+    @Query("select v.document as document, v.replyCount as replyCount, q.replyCount as totalReplies " +
+            "from ThreadView v join Question q on q.id = v.questionId " +
+            "where v.questionId = :questionId")
+    Optional<ThreadDocument> findDocument(@Param("questionId") Long questionId);
+
+    /**
+     * Appends serialized reply to document, only when the document is not full, reply follows its last reply and
+     * the document holds every earlier reply of question. Must be executed in transaction which inserts the reply,
+     * after reply count of question is incremented by all replies inserted in the transaction.
+     *
+     * @param questionId id of question
+     * @param replyId    id of reply
+     * @param reply      serialized reply
+     * @param capacity   maximum number of replies held in document
+     * @param pending    number of replies of question inserted in the transaction and not yet appended, this one included
+     * @return number of updated rows, 0 when view does not exist, is full, holds reply with higher id or misses
+     * replies inserted without appending them
+     */
+    @Modifying
+    @Query(value = "update thread_views " +
+            "set document = document || cast(:reply as varbinary), reply_count = reply_count + 1, last_reply_id = :replyId " +
+            "where question_id = :questionId and reply_count < :capacity and last_reply_id < :replyId " +
+            "and reply_count + :pending = (select q.reply_count from questions q where q.id = :questionId)",
+            nativeQuery = true)
+    int appendReply(@Param("questionId") Long questionId, @Param("replyId") Long replyId,
+                    @Param("reply") byte[] reply, @Param("capacity") int capacity, @Param("pending") int pending);
+
+    /**
+     * Checks if document is full and reply follows its last reply, so reply does not belong to the document
+     *
+     * @param questionId id of question
+     * @param replyId    id of reply
+     * @param capacity   maximum number of replies held in document
+     * @return true when reply is not held by full document, false when view does not exist or has to be rebuilt
+     */
+    @Query("select count(v) > 0 from ThreadView v " +
+            "where v.questionId = :questionId and v.replyCount >= :capacity and v.lastReplyId < :replyId")
+    boolean isFullBefore(@Param("questionId") Long questionId, @Param("replyId") Long replyId,
+                         @Param("capacity") int capacity);
+
+    /**
+     * Document of thread with reply counts
+     */
+    interface ThreadDocument {
+
+        /**
+         * @return serialized question followed by replies
+         */
+        byte[] getDocument();
+
+        /**
+         * @return number of replies held in document
+         */
+        int getReplyCount();
+
+        /**
+         * @return number of all replies of question
+         */
+        long getTotalReplies();
+    }
+}
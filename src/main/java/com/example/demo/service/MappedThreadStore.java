@@ -0,0 +1,255 @@
+package com.example.demo.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Store of serialized threads in memory-mapped file, used as cold tier below {@link ThreadCache}.
+ * File is written as circular log, new thread is appended after the previous one and, once the end of file is reached,
+ * writing continues from the start, overwriting the oldest threads. Only id, position and ETag of stored threads
+ * are kept on heap, JSON stays in page cache outside of Java heap. Expired threads are treated as absent.
+ * <p>
+ * Space of removed or replaced threads is reclaimed only when the log wraps around to it.
+ */
+class MappedThreadStore implements Closeable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Slot> slots = new HashMap<>();
+    private final ArrayDeque<Slot> log = new ArrayDeque<>();
+    private int head;
+    private long usedBytes;
+    private long evictions;
+
+    /**
+     * Create store backed by new temporary file, the file is deleted on close
+     *
+     * @param directory directory of the file, default temporary directory when null
+     * @param capacity  size of the file in bytes, at most {@link Integer#MAX_VALUE}
+     */
+    MappedThreadStore(Path directory, long capacity) {
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity of mapped thread store must be between 1 and "
+                    + Integer.MAX_VALUE + " bytes, was " + capacity);
+        }
+        this.capacity = (int) capacity;
+        try {
+            this.file = directory == null
+                    ? Files.createTempFile("forum-threads", ".bin")
+                    : Files.createTempFile(Files.createDirectories(directory), "forum-threads", ".bin");
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Store thread, replacing previously stored version. Thread larger than the whole file is not stored.
+     *
+     * @param questionId id of question
+     * @param json       serialized thread
+     * @param etag       ETag of thread
+     * @param expiresAt  {@link System#nanoTime()} after which thread expires
+     * @return true when thread was stored
+     */
+    boolean put(Long questionId, byte[] json, String etag, long expiresAt) {
+        if (json.length > capacity) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            int offset = allocate(json.length);
+            buffer.put(offset, json);
+            Slot slot = new Slot(questionId, offset, json.length, etag, expiresAt);
+            log.addLast(slot);
+            usedBytes += json.length;
+            Slot previous = slots.put(questionId, slot);
+            if (previous != null) {
+                usedBytes -= previous.length;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Read stored thread, JSON is copied to heap
+     *
+     * @param questionId id of question
+     * @return thread without ThreadDTO, null when thread is not stored
+     */
+    RenderedThread get(Long questionId) {
+        lock.readLock().lock();
+        try {
+            Slot slot = slots.get(questionId);
+            if (slot == null || slot.isExpired()) {
+                return null;
+            }
+            byte[] json = new byte[slot.length];
+            buffer.get(slot.offset, json);
+            return new RenderedThread(null, json, slot.etag);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read ETag of stored thread without touching the file
+     *
+     * @param questionId id of question
+     * @return ETag or null when thread is not stored
+     */
+    String etag(Long questionId) {
+        lock.readLock().lock();
+        try {
+            Slot slot = slots.get(questionId);
+            return slot == null || slot.isExpired() ? null : slot.etag;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove stored thread
+     *
+     * @param questionId id of question
+     */
+    void remove(Long questionId) {
+        lock.writeLock().lock();
+        try {
+            Slot slot = slots.remove(questionId);
+            if (slot != null) {
+                usedBytes -= slot.length;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of stored threads, including expired ones not overwritten yet
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return bytes taken by stored threads, space of removed threads not overwritten yet is not counted
+     */
+    long usedBytes() {
+        lock.readLock().lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of threads overwritten because the log wrapped around
+     */
+    long evictions() {
+        lock.readLock().lock();
+        try {
+            return evictions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Release the file, mapping itself is released once buffer is garbage collected
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            log.clear();
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find position for the next thread and drop threads it overwrites. Log is ordered from the oldest slot,
+     * the oldest slots lie right after head, except on the first pass through the file.
+     *
+     * @param length length of the next thread
+     * @return offset of the next thread
+     */
+    private int allocate(int length) {
+        if (head + length > capacity) {
+            // threads between head and end of file are the oldest, they are dropped before writing continues from start
+            while (!log.isEmpty() && log.peekFirst().offset >= head) {
+                drop(log.removeFirst());
+            }
+            head = 0;
+        }
+        while (!log.isEmpty() && log.peekFirst().offset >= head && log.peekFirst().offset < head + length) {
+            drop(log.removeFirst());
+        }
+        int offset = head;
+        head += length;
+        return offset;
+    }
+
+    private void drop(Slot slot) {
+        // slot of replaced or removed thread is no longer indexed
+        if (slots.get(slot.questionId) == slot) {
+            slots.remove(slot.questionId);
+            usedBytes -= slot.length;
+            evictions++;
+        }
+    }
+
+    /**
+     * Position of single stored thread
+     */
+    private static final class Slot {
+
+        private final Long questionId;
+        private final int offset;
+        private final int length;
+        private final String etag;
+        private final long expiresAt;
+
+        private Slot(Long questionId, int offset, int length, String etag, long expiresAt) {
+            this.questionId = questionId;
+            this.offset = offset;
+            this.length = length;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
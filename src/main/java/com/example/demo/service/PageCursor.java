@@ -0,0 +1,48 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * PageCursor class, encodes last seen entity id into opaque cursor string and back.
+ */
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    /**
+     * Encode id of the last element of a page into cursor
+     *
+     * @param id id of last returned entity
+     * @return url safe cursor string
+     */
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode cursor into id after which next page starts, if cursor is malformed {@link InvalidCursorException} is throw
+     *
+     * @param cursor cursor string, null means first page
+     * @return id after which next page starts
+     */
+    public static long decode(String cursor) {
+        if (cursor == null) {
+            return 0L;
+        }
+        try {
+            long id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (id < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return id;
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.BulkItemResultDTO;
+import com.example.demo.dto.BulkResultDTO;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Reply;
+import com.example.demo.exception.BulkLimitExceededException;
+import com.example.demo.exception.QuestionNotFoundException;
+import com.example.demo.repository.QuestionRepository;
+import com.example.demo.repository.ReplyRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Question bulk service class, creates many Questions or Replies in single transaction.
+ * Items are validated in one pass, invalid items, null ones included, are reported and skipped, valid items
+ * are persisted with JDBC batched inserts.
+ */
+@Service
+public class QuestionBulkService {
+
+    private final QuestionRepository questionRepository;
+    private final ReplyRepository replyRepository;
+    private final QuestionMapper questionMapper;
+    private final ThreadCache threadCache;
+    private final SearchIndex searchIndex;
+    private final ThreadViews threadViews;
+    private final Validator validator;
+    private final ForumProperties forumProperties;
+
+    public QuestionBulkService(QuestionRepository questionRepository, ReplyRepository replyRepository, QuestionMapper questionMapper,
+                               ThreadCache threadCache, SearchIndex searchIndex, ThreadViews threadViews, Validator validator,
+                               ForumProperties forumProperties) {
+        this.questionRepository = questionRepository;
+        this.replyRepository = replyRepository;
+        this.questionMapper = questionMapper;
+        this.threadCache = threadCache;
+        this.searchIndex = searchIndex;
+        this.threadViews = threadViews;
+        this.validator = validator;
+        this.forumProperties = forumProperties;
+    }
+
+    /**
+     * Method creates all valid Questions with their empty thread views in single transaction,
+     * created Questions are added to search index once it commits
+     *
+     * @param questionDTOs transfer objects
+     * @return BulkResultDTO with outcome of each item
+     */
+    @Transactional
+    public BulkResultDTO createQuestions(List<QuestionDTO> questionDTOs) {
+        checkSize(questionDTOs);
+        BulkItemResultDTO[] results = new BulkItemResultDTO[questionDTOs.size()];
+        List<Integer> indexes = new ArrayList<>(questionDTOs.size());
+        List<Question> questions = new ArrayList<>(questionDTOs.size());
+
+        for (int i = 0; i < questionDTOs.size(); i++) {
+            String error = validate(questionDTOs.get(i));
+            if (error != null) {
+                results[i] = failed(i, HttpStatus.BAD_REQUEST, error);
+            } else {
+                indexes.add(i);
+                questions.add(questionMapper.questionDTOToQuestion(questionDTOs.get(i)));
+            }
+        }
+
+        List<Question> saved = questionRepository.saveAll(questions);
+        threadViews.createAll(saved);
+        List<QuestionDTO> indexed = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            results[indexes.get(i)] = created(indexes.get(i), saved.get(i).getId());
+            indexed.add(questionMapper.questionToQuestionDTO(saved.get(i)));
+        }
+        searchIndex.addQuestions(indexed);
+        return toBulkResult(results);
+    }
+
+    /**
+     * Method creates all valid Replies in single transaction, each reply has to point to existing question.
+     * Reply counts of affected questions are incremented once per question, created Replies appended to thread views,
+     * cached threads invalidated and created Replies added to search index.
+     *
+     * @param replyDTOs transfer objects with question id
+     * @return BulkResultDTO with outcome of each item
+     */
+    @Transactional
+    public BulkResultDTO createReplies(List<ReplyDTO> replyDTOs) {
+        checkSize(replyDTOs);
+        BulkItemResultDTO[] results = new BulkItemResultDTO[replyDTOs.size()];
+        Set<Long> questionIds = new HashSet<>();
+        for (int i = 0; i < replyDTOs.size(); i++) {
+            ReplyDTO replyDTO = replyDTOs.get(i);
+            String error = validateReply(replyDTO);
+            if (error != null) {
+                results[i] = failed(i, HttpStatus.BAD_REQUEST, error);
+            } else {
+                questionIds.add(replyDTO.getQuestionId());
+            }
+        }
+        Set<Long> existingIds = questionIds.isEmpty()
+                ? questionIds
+                : new HashSet<>(questionRepository.findExistingIds(questionIds));
+
+        List<Integer> indexes = new ArrayList<>(replyDTOs.size());
+        List<Reply> replies = new ArrayList<>(replyDTOs.size());
+        // questions are locked by increments in id order, so concurrent bulks cannot deadlock on them
+        Map<Long, Long> repliesPerQuestion = new TreeMap<>();
+        for (int i = 0; i < replyDTOs.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            Long questionId = replyDTOs.get(i).getQuestionId();
+            if (!existingIds.contains(questionId)) {
+                results[i] = failed(i, HttpStatus.NOT_FOUND, new QuestionNotFoundException(questionId).getMessage());
+                continue;
+            }
+            Reply reply = questionMapper.replyDTOToReply(replyDTOs.get(i));
+            // existence already checked, reference avoids select per reply
+            reply.setQuestion(questionRepository.getReferenceById(questionId));
+            indexes.add(i);
+            replies.add(reply);
+            repliesPerQuestion.merge(questionId, 1L, Long::sum);
+        }
+
+        List<Reply> saved = replyRepository.saveAll(replies);
+        repliesPerQuestion.forEach((questionId, count) -> {
+            questionRepository.incrementReplyCount(questionId, count);
+            threadCache.invalidate(questionId);
+        });
+        List<ReplyDTO> indexed = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            Reply reply = saved.get(i);
+            results[indexes.get(i)] = created(indexes.get(i), reply.getId());
+            indexed.add(ReplyDTO.builder()
+                    .questionId(replyDTOs.get(indexes.get(i)).getQuestionId())
+                    .id(reply.getId())
+                    .author(reply.getAuthor())
+                    .message(reply.getMessage())
+                    .build());
+        }
+        threadViews.append(indexed);
+        searchIndex.addReplies(indexed);
+        return toBulkResult(results);
+    }
+
+    private void checkSize(List<?> items) {
+        int maxItems = forumProperties.getBulk().getMaxItems();
+        if (items.size() > maxItems) {
+            throw new BulkLimitExceededException(items.size(), maxItems);
+        }
+    }
+
+    private String validateReply(ReplyDTO replyDTO) {
+        if (replyDTO != null && replyDTO.getQuestionId() == null) {
+            return "questionId must not be null";
+        }
+        return validate(replyDTO);
+    }
+
+    private String validate(Object item) {
+        if (item == null) {
+            return "item must not be null";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static BulkItemResultDTO created(int index, Long id) {
+        return BulkItemResultDTO.builder().index(index).status(HttpStatus.CREATED.value()).id(id).build();
+    }
+
+    private static BulkItemResultDTO failed(int index, HttpStatus status, String error) {
+        return BulkItemResultDTO.builder().index(index).status(status.value()).error(error).build();
+    }
+
+    private static BulkResultDTO toBulkResult(BulkItemResultDTO[] results) {
+        int created = (int) Arrays.stream(results).filter(result -> result.getError() == null).count();
+        return BulkResultDTO.builder()
+                .created(created)
+                .failed(results.length - created)
+                .results(Arrays.asList(results))
+                .build();
+    }
+}
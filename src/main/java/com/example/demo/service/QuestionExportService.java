@@ -0,0 +1,143 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.ThreadRowDTO;
+import com.example.demo.entity.Question;
+import com.example.demo.repository.QuestionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Question export service class, writes all Questions as newline delimited JSON.
+ * Rows are streamed from database cursor straight to the output, so heap usage does not depend on number of rows.
+ */
+@Service
+public class QuestionExportService {
+
+    private final QuestionRepository questionRepository;
+    private final QuestionMapper questionMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ForumProperties forumProperties;
+
+    public QuestionExportService(QuestionRepository questionRepository, QuestionMapper questionMapper,
+                                 ObjectMapper objectMapper, EntityManager entityManager, ForumProperties forumProperties) {
+        this.questionRepository = questionRepository;
+        this.questionMapper = questionMapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.forumProperties = forumProperties;
+    }
+
+    /**
+     * Method writes every Question as single JSON line ordered by id. Without replies line has QuestionDTO form,
+     * with replies it has ThreadDTO form with all replies inlined.
+     *
+     * @param out            output stream, it is flushed but not closed
+     * @param includeReplies whether replies are inlined into question line
+     * @throws IOException when writing to output fails
+     */
+    @Transactional(readOnly = true)
+    public void exportQuestions(OutputStream out, boolean includeReplies) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        if (includeReplies) {
+            writeThreads(generator);
+        } else {
+            writeQuestions(generator);
+        }
+        generator.close();
+    }
+
+    /**
+     * Method writes every Question in QuestionDTO form. Persistence context is cleared periodically
+     * so loaded entities can be garbage collected.
+     *
+     * @param generator JSON generator
+     * @throws IOException when writing to output fails
+     */
+    private void writeQuestions(JsonGenerator generator) throws IOException {
+        int clearInterval = forumProperties.getExport().getClearInterval();
+        long rows = 0;
+        boolean first = true;
+        try (Stream<Question> questions = questionRepository.streamAll()) {
+            Iterator<Question> iterator = questions.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(questionMapper.questionToQuestionDTO(iterator.next()));
+                generator.writeRaw('\n');
+
+                if (first) {
+                    // let client start receiving before first buffer fills up
+                    first = false;
+                    generator.flush();
+                }
+                if (++rows >= clearInterval) {
+                    rows = 0;
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Method writes every Question with all its replies in ThreadDTO form. Questions joined with replies are read
+     * by single query ordered by question id and reply id, thread ends where question id of row changes.
+     * Rows are projected into transfer objects, so nothing is held by persistence context.
+     *
+     * @param generator JSON generator
+     * @throws IOException when writing to output fails
+     */
+    private void writeThreads(JsonGenerator generator) throws IOException {
+        Long questionId = null;
+        boolean first = true;
+        try (Stream<ThreadRowDTO> rows = questionRepository.streamThreads()) {
+            Iterator<ThreadRowDTO> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                ThreadRowDTO row = iterator.next();
+                if (!row.getQuestionId().equals(questionId)) {
+                    if (questionId != null) {
+                        endThread(generator);
+                        if (first) {
+                            // let client start receiving before first buffer fills up
+                            first = false;
+                            generator.flush();
+                        }
+                    }
+                    questionId = row.getQuestionId();
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", row.getQuestionId());
+                    generator.writeStringField("author", row.getQuestionAuthor());
+                    generator.writeStringField("message", row.getQuestionMessage());
+                    generator.writeArrayFieldStart("replies");
+                }
+                if (row.getReplyId() != null) {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", row.getReplyId());
+                    generator.writeStringField("author", row.getReplyAuthor());
+                    generator.writeStringField("message", row.getReplyMessage());
+                    generator.writeEndObject();
+                }
+            }
+        }
+        if (questionId != null) {
+            endThread(generator);
+        }
+    }
+
+    private void endThread(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -8,13 +8,14 @@ import com.example.demo.entity.Question;
 import com.example.demo.entity.Reply;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * QuestionMapper class, map entities and DTOs in both directions.
+ * Thread mapping runs on every uncached read, DTOs are created with constructors into presized lists,
+ * so mapped thread allocates only DTOs and single array of replies.
  */
 @Component
 public class QuestionMapper {
@@ -26,12 +27,7 @@ public class QuestionMapper {
      * @return QuestionDTO
      */
     QuestionDTO questionToQuestionDTO(Question question) {
-        return QuestionDTO.builder()
-                .id(question.getId())
-                .author(question.getAuthor())
-                .message(question.getMessage())
-                .replies(question.getReplies() == null ? 0L : question.getReplies().size())
-                .build();
+        return new QuestionDTO(question.getId(), question.getAuthor(), question.getMessage(), question.getReplyCount());
     }
 
     /**
@@ -48,18 +44,16 @@ public class QuestionMapper {
     }
 
     /**
-     * Map question entity to ThreadDTO
+     * Map question entity and page of its replies to ThreadDTO
      *
-     * @param question is an entity object
+     * @param question   is an entity object
+     * @param replies    page of question replies
+     * @param nextCursor cursor of next replies page, null on last page
      * @return ThreadDTO with is transfer object for Question and related Replies
      */
-    ThreadDTO questionToThreadDTO(Question question) {
-        return ThreadDTO.builder()
-                .id(question.getId())
-                .message(question.getMessage())
-                .replies(replyListToThreadReplyDTOList(question.getReplies()))
-                .author(question.getAuthor())
-                .build();
+    ThreadDTO questionToThreadDTO(Question question, List<Reply> replies, String nextCursor) {
+        return new ThreadDTO(question.getId(), question.getAuthor(), question.getMessage(),
+                replyListToThreadReplyDTOList(replies), question.getReplyCount(), nextCursor);
     }
 
     /**
@@ -69,11 +63,14 @@ public class QuestionMapper {
      * @return List of ThreadReplyDTO, hold reply list without relation to question
      */
     private List<ThreadReplyDTO> replyListToThreadReplyDTOList(List<Reply> replies) {
-        return Optional.ofNullable(replies)
-                .orElse(Collections.emptyList())
-                .stream()
-                .map(this::replyToThreadReplyDTO)
-                .collect(Collectors.toList());
+        if (replies == null || replies.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ThreadReplyDTO> threadReplies = new ArrayList<>(replies.size());
+        for (Reply reply : replies) {
+            threadReplies.add(replyToThreadReplyDTO(reply));
+        }
+        return threadReplies;
     }
 
     /**
@@ -83,11 +80,7 @@ public class QuestionMapper {
      * @return ThreadReplyDTO, hold reply without relation to question
      */
     ThreadReplyDTO replyToThreadReplyDTO(Reply reply) {
-        return ThreadReplyDTO.builder()
-                .id(reply.getId())
-                .message(reply.getMessage())
-                .author(reply.getAuthor())
-                .build();
+        return new ThreadReplyDTO(reply.getId(), reply.getAuthor(), reply.getMessage());
     }
 
     /**
@@ -97,12 +90,7 @@ public class QuestionMapper {
      * @return ReplyDTO
      */
     ReplyDTO replyToReplyDTO(Reply reply) {
-        return ReplyDTO.builder()
-                .id(reply.getId())
-                .questionId(reply.getQuestion().getId())
-                .message(reply.getMessage())
-                .author(reply.getAuthor())
-                .build();
+        return new ReplyDTO(reply.getQuestion().getId(), reply.getId(), reply.getAuthor(), reply.getMessage());
     }
 
     /**
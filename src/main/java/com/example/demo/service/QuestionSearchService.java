@@ -0,0 +1,94 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.dto.SearchHitDTO;
+import com.example.demo.dto.SearchResultDTO;
+import com.example.demo.exception.SearchIndexRebuildRunningException;
+import com.example.demo.repository.QuestionRepository;
+import com.example.demo.repository.ReplyRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Question search service class, full-text search over messages of Questions and Replies
+ */
+@Slf4j
+@Service
+public class QuestionSearchService {
+
+    private final QuestionRepository questionRepository;
+    private final ReplyRepository replyRepository;
+    private final SearchIndex searchIndex;
+    private final ForumProperties forumProperties;
+
+    public QuestionSearchService(QuestionRepository questionRepository, ReplyRepository replyRepository, SearchIndex searchIndex,
+                                 ForumProperties forumProperties) {
+        this.questionRepository = questionRepository;
+        this.replyRepository = replyRepository;
+        this.searchIndex = searchIndex;
+        this.forumProperties = forumProperties;
+    }
+
+    /**
+     * Method returns single page of Questions and Replies matching query ordered by relevance.
+     * Only configured number of best matches can be paged through.
+     *
+     * @param query query text
+     * @param after cursor of previous page, null for the first page
+     * @param limit requested page size, null for default, capped to configured maximum
+     * @return SearchResultDTO with hits and cursor of next page, cursor is null on last page
+     */
+    @Timed(QuestionService.SERVICE_TIMER)
+    public SearchResultDTO search(String query, String after, Integer limit) {
+        int offset = (int) Math.min(PageCursor.decode(after), Integer.MAX_VALUE);
+        int maxResults = forumProperties.getSearch().getMaxResults();
+        int pageSize = Math.min(forumProperties.getPagination().pageSize(limit), Math.max(0, maxResults - offset));
+        // one extra hit tells if there is a next page
+        List<SearchHitDTO> hits = pageSize == 0
+                ? new ArrayList<>()
+                : searchIndex.search(query, offset, pageSize + 1);
+
+        boolean hasMore = hits.size() > pageSize;
+        boolean hasNext = hasMore && offset + pageSize < maxResults;
+        return SearchResultDTO.builder()
+                .hits(hasMore ? hits.subList(0, pageSize) : hits)
+                .nextCursor(hasNext ? PageCursor.encode((long) offset + pageSize) : null)
+                .build();
+    }
+
+    /**
+     * Method rebuilds search index from all Questions and Replies in repository.
+     * New index is built alongside the live one, which keeps serving searches until new index replaces it.
+     * Posts created concurrently are written to both indexes, so they are not lost.
+     *
+     * @return number of indexed posts
+     * @throws SearchIndexRebuildRunningException when rebuild is already running
+     */
+    @Transactional(readOnly = true)
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        searchIndex.beginRebuild();
+        try {
+            try (Stream<QuestionDTO> questions = questionRepository.streamQuestions()) {
+                questions.forEach(searchIndex::rebuildQuestion);
+            }
+            try (Stream<ReplyDTO> replies = replyRepository.streamReplies()) {
+                replies.forEach(searchIndex::rebuildReply);
+            }
+        } catch (RuntimeException ex) {
+            searchIndex.abortRebuild();
+            throw ex;
+        }
+        long posts = searchIndex.finishRebuild();
+        log.info("Search index rebuilt with {} posts in {} ms", posts, System.currentTimeMillis() - start);
+        return posts;
+    }
+}
@@ -1,17 +1,31 @@
 package com.example.demo.service;
 
+import com.example.demo.config.ForumProperties;
 import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.QuestionPageDTO;
 import com.example.demo.dto.ReplyDTO;
 import com.example.demo.dto.ThreadDTO;
+import com.example.demo.dto.ThreadReplyDTO;
 import com.example.demo.entity.Question;
 import com.example.demo.entity.Reply;
 import com.example.demo.exception.QuestionNotFoundException;
 import com.example.demo.repository.QuestionRepository;
 import com.example.demo.repository.ReplyRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Question service class, encapsulate logical operations on Questions and Replies
@@ -19,66 +33,217 @@ import java.util.stream.Collectors;
 @Service
 public class QuestionService {
 
+    /**
+     * Name of timer of public methods, tagged with class and method name
+     */
+    public static final String SERVICE_TIMER = "forum.service";
+
     private final QuestionRepository questionRepository;
     private final ReplyRepository replyRepository;
     private final QuestionMapper questionMapper;
+    private final ForumProperties forumProperties;
+    private final ThreadCache threadCache;
+    private final SearchIndex searchIndex;
+    private final ThreadViews threadViews;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
-    public QuestionService(QuestionRepository questionRepository, ReplyRepository replyRepository, QuestionMapper questionMapper) {
+    public QuestionService(QuestionRepository questionRepository, ReplyRepository replyRepository, QuestionMapper questionMapper,
+                           ForumProperties forumProperties, ThreadCache threadCache, SearchIndex searchIndex,
+                           ThreadViews threadViews, ObjectMapper objectMapper, TransactionTemplate transactionTemplate) {
         this.questionRepository = questionRepository;
         this.replyRepository = replyRepository;
         this.questionMapper = questionMapper;
+        this.forumProperties = forumProperties;
+        this.threadCache = threadCache;
+        this.searchIndex = searchIndex;
+        this.threadViews = threadViews;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     /**
-     * Method returns all existing Questions in repository
+     * Method returns single page of existing Questions in repository ordered by id.
+     * Page is read with keyset (seek) query, so cost does not depend on how deep the page is.
+     * Runs in read-only transaction served by read data source.
      *
-     * @return List of QuestionDTO
+     * @param after cursor of previous page, null for the first page
+     * @param limit requested page size, null for default, capped to configured maximum
+     * @return QuestionPageDTO with Questions and cursor of next page, cursor is null on last page
      */
-    public List<QuestionDTO> getAllQuestions() {
-        return questionRepository
-                .findAll()
-                .stream()
-                .map(questionMapper::questionToQuestionDTO)
-                .collect(Collectors.toList());
+    @Timed(SERVICE_TIMER)
+    @Transactional(readOnly = true)
+    public QuestionPageDTO getAllQuestions(String after, Integer limit) {
+        int pageSize = forumProperties.getPagination().pageSize(limit);
+        // one extra row tells if there is a next page without additional count query
+        List<QuestionDTO> questions = questionRepository
+                .findQuestionPage(PageCursor.decode(after), PageRequest.of(0, pageSize + 1));
+
+        boolean hasNext = questions.size() > pageSize;
+        List<QuestionDTO> page = hasNext ? questions.subList(0, pageSize) : questions;
+
+        return QuestionPageDTO.builder()
+                .questions(page)
+                .nextCursor(hasNext ? PageCursor.encode(page.get(page.size() - 1).getId()) : null)
+                .build();
     }
 
     /**
-     * Method create a new Question in repository
+     * Method create a new Question in repository together with its empty thread view and adds it to search index
      *
      * @param questionDTO transfer object
      * @return QuestionDTO
      */
+    @Timed(SERVICE_TIMER)
+    @Transactional
     public QuestionDTO createQuestion(QuestionDTO questionDTO) {
         Question question = questionRepository
                 .save(questionMapper.questionDTOToQuestion(questionDTO));
-        return questionMapper.questionToQuestionDTO(question);
+        threadViews.create(question);
+        QuestionDTO created = questionMapper.questionToQuestionDTO(question);
+        searchIndex.addQuestions(Collections.singletonList(created));
+        return created;
 
     }
 
     /**
-     * Method create a new Replay to given question
+     * Method create a new Replay to given question and increments question reply count in the same transaction.
+     * Increment doubles as existence check, when no question row is updated runtime exception
+     * {@link QuestionNotFoundException} is throw and nothing is inserted. Question is referenced without being loaded.
+     * Reply is appended to thread view of the question in the same transaction.
+     * Cached thread of the question is invalidated and reply is added to search index once transaction commits.
      *
      * @param replyDTO   transfer object
      * @param questionId id of related question
      * @return ReplyDTO
      */
+    @Timed(SERVICE_TIMER)
+    @Transactional
     public ReplyDTO createReply(ReplyDTO replyDTO, Long questionId) {
-        Question question = findQuestionById(questionId);
+        if (questionRepository.incrementReplyCount(questionId, 1L) == 0) {
+            throw new QuestionNotFoundException(questionId);
+        }
 
         Reply reply = questionMapper.replyDTOToReply(replyDTO);
-        reply.setQuestion(question);
-        return questionMapper.replyToReplyDTO(replyRepository.save(reply));
+        reply.setQuestion(questionRepository.getReferenceById(questionId));
+        Reply saved = replyRepository.save(reply);
+        ReplyDTO created = questionMapper.replyToReplyDTO(saved);
+        threadViews.append(Collections.singletonList(created));
+        threadCache.invalidate(questionId);
+        searchIndex.addReplies(Collections.singletonList(created));
+        return created;
+    }
+
+    /**
+     * Method writes Question with single page of related Replies to output stream in ThreadDTO JSON form.
+     * First page is copied from thread view when it holds the page. Otherwise replies are read over forward-only
+     * cursor and each one is written as soon as it is read, without building ThreadDTO or list of replies.
+     * Question and first reply are read before anything is flushed, so missing question or failing replies query
+     * still end with error response. Failure while later replies are read ends the already started response with
+     * cut-off body, as does failure after output buffer of the response is filled.
+     * Runs in read-only transaction served by read data source.
+     *
+     * @param out        output stream, it is flushed but not closed
+     * @param questionId id of question
+     * @param after      cursor of previous replies page, null for the first page
+     * @param limit      requested page size, null for default, capped to configured maximum
+     * @throws IOException when writing to output fails
+     */
+    @Timed(SERVICE_TIMER)
+    @Transactional(readOnly = true)
+    public void writeThread(OutputStream out, Long questionId, String after, Integer limit) throws IOException {
+        long afterId = PageCursor.decode(after);
+        int pageSize = forumProperties.getPagination().pageSize(limit);
+        ThreadDTO view = afterId == 0L ? threadViews.read(questionId, pageSize) : null;
+        Question question = view == null ? findQuestionById(questionId) : null;
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (view != null) {
+            generator.writeObject(view);
+            generator.close();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeNumberField("id", question.getId());
+        generator.writeStringField("author", question.getAuthor());
+        generator.writeStringField("message", question.getMessage());
+
+        generator.writeArrayFieldStart("replies");
+        int written = 0;
+        long lastId = 0L;
+        boolean hasNext = false;
+        try (Stream<ThreadReplyDTO> replies = replyRepository.streamReplyPage(questionId, afterId, Limit.of(pageSize + 1))) {
+            Iterator<ThreadReplyDTO> iterator = replies.iterator();
+            while (iterator.hasNext()) {
+                ThreadReplyDTO reply = iterator.next();
+                if (written == pageSize) {
+                    hasNext = true;
+                    break;
+                }
+                generator.writeStartObject();
+                generator.writeNumberField("id", reply.getId());
+                generator.writeStringField("author", reply.getAuthor());
+                generator.writeStringField("message", reply.getMessage());
+                generator.writeEndObject();
+                lastId = reply.getId();
+                if (written++ == 0) {
+                    // replies query succeeded, let client start receiving while the rest is read
+                    generator.flush();
+                }
+            }
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("totalReplies", question.getReplyCount());
+        generator.writeStringField("nextCursor", hasNext ? PageCursor.encode(lastId) : null);
+        generator.writeEndObject();
+        generator.close();
     }
 
     /**
-     * Method returns Question with all related Replies wrapped into ThreadDTO object for given question ID
+     * Method returns first page of thread of default size together with its ETag and serialized form,
+     * read through thread cache. Cache misses are loaded in read-only transaction served by read data source,
+     * concurrent misses of the same question wait for single load instead of all reading the database.
+     * Miss of thread invalidated by new reply is loaded from primary data source instead, replica lagging behind
+     * would return thread without the reply and it would stay cached until it expires.
      *
-     * @param questionId id of
-     * @return ThreadDTO transfer object, holds Question with related Replies
+     * @param questionId id of question
+     * @return RenderedThread holding first page of thread
      */
-    public ThreadDTO getThread(Long questionId) {
+    @Timed(SERVICE_TIMER)
+    public RenderedThread getRenderedThread(Long questionId) {
+        int pageSize = forumProperties.getPagination().getDefaultLimit();
+        return threadCache.get(questionId, id -> {
+            TransactionTemplate transaction = threadCache.isInvalidated(id) ? transactionTemplate : readOnlyTransactionTemplate;
+            return transaction.execute(status -> loadFirstPage(id, pageSize));
+        });
+    }
+
+    /**
+     * Method reads Question and first page of its Replies from repository.
+     * Page is read from thread view with single primary key lookup, so its cost does not grow with number
+     * of replies. Threads without view are read with keyset (seek) query on replies,
+     * total number of replies comes from denormalized reply count.
+     *
+     * @param questionId id of question
+     * @param pageSize   number of replies on page
+     * @return ThreadDTO transfer object, holds Question with page of related Replies
+     */
+    private ThreadDTO loadFirstPage(Long questionId, int pageSize) {
+        ThreadDTO view = threadViews.read(questionId, pageSize);
+        if (view != null) {
+            return view;
+        }
         Question question = findQuestionById(questionId);
-        return questionMapper.questionToThreadDTO(question);
+        List<Reply> replies = replyRepository.findReplyPage(questionId, 0L, PageRequest.of(0, pageSize + 1));
+
+        boolean hasNext = replies.size() > pageSize;
+        List<Reply> page = hasNext ? replies.subList(0, pageSize) : replies;
+        String nextCursor = hasNext ? PageCursor.encode(page.get(page.size() - 1).getId()) : null;
+        return questionMapper.questionToThreadDTO(question, page, nextCursor);
     }
 
     /**
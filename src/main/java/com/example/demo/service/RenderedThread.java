@@ -0,0 +1,37 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ThreadDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * RenderedThread class, holds first page of thread together with its strong ETag
+ * and optionally its final UTF-8 JSON representation.
+ */
+@Getter
+@AllArgsConstructor
+public class RenderedThread {
+
+    /**
+     * Thread transfer object, null when thread was served from mapped tier of thread cache
+     */
+    private final ThreadDTO thread;
+
+    /**
+     * Serialized thread, null when serialized caching is disabled
+     */
+    private final byte[] json;
+
+    private final String etag;
+
+    /**
+     * Strong ETag of thread first page. Question is immutable and replies are only ever appended,
+     * so reply count is a version of the thread.
+     *
+     * @param thread ThreadDTO
+     * @return quoted ETag value
+     */
+    static String etagOf(ThreadDTO thread) {
+        return "\"" + thread.getId() + "-" + thread.getTotalReplies() + "\"";
+    }
+}
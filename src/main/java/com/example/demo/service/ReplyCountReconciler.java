@@ -0,0 +1,54 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.repository.QuestionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Background job repairing drift between denormalized Question reply count and REPLIES table.
+ * Questions are walked in id order in bounded batches, each batch is repaired in its own transaction.
+ */
+@Slf4j
+@Component
+public class ReplyCountReconciler {
+
+    private final QuestionRepository questionRepository;
+    private final ForumProperties forumProperties;
+
+    public ReplyCountReconciler(QuestionRepository questionRepository, ForumProperties forumProperties) {
+        this.questionRepository = questionRepository;
+        this.forumProperties = forumProperties;
+    }
+
+    /**
+     * Method walks all questions and repairs reply counts which do not match REPLIES table
+     *
+     * @return number of repaired questions
+     */
+    @Scheduled(initialDelayString = "${forum.reconciliation.interval:PT10M}",
+            fixedDelayString = "${forum.reconciliation.interval:PT10M}")
+    public int reconcile() {
+        int batchSize = forumProperties.getReconciliation().getBatchSize();
+        int repaired = 0;
+        long after = 0L;
+        List<Long> ids;
+        do {
+            ids = questionRepository.findIdPage(after, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+            repaired += questionRepository.reconcileReplyCounts(ids.get(0), after);
+        } while (ids.size() == batchSize);
+
+        if (repaired > 0) {
+            log.warn("Repaired reply count of {} questions", repaired);
+        }
+        return repaired;
+    }
+}
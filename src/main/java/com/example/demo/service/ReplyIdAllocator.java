@@ -0,0 +1,39 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Reply;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * ReplyIdAllocator class, allocates reply ids ahead of insert from the same generator Hibernate uses for Reply entity,
+ * so allocated ids never collide with ids of replies persisted through JPA.
+ * Database is reached only once per allocation size ids.
+ */
+@Component
+public class ReplyIdAllocator {
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final BeforeExecutionGenerator generator;
+
+    public ReplyIdAllocator(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.generator = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel().getEntityDescriptor(Reply.class).getGenerator();
+    }
+
+    /**
+     * Allocate next reply id
+     *
+     * @return reply id
+     */
+    public Long nextId() {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) generator.generate((SharedSessionContractImplementor) session, null, null, EventType.INSERT);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.exception.QuestionNotFoundException;
+import com.example.demo.exception.WriteQueueFullException;
+import com.example.demo.repository.QuestionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reply write-behind service class, accepts Replies into bounded in-memory queue and inserts them in batches
+ * on single background writer thread. Ids are allocated when reply is accepted, in the same order replies enter the queue,
+ * and single writer inserts them in that order, so replies of each question are stored in acceptance order.
+ * <p>
+ * Accepted replies are not durable until written, replies still queued when the process is killed are lost.
+ * On regular shutdown the queue is drained within configured timeout, after web server stopped accepting requests.
+ * Active only with forum.write-behind.enabled=true.
+ */
+@Slf4j
+@Service
+public class ReplyWriteBehind implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "forum.reply.write.behind";
+
+    private static final String INSERT_REPLY = "insert into replies (id, author, message, question_id) values (?, ?, ?, ?)";
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    // below graceful shutdown and web server start/stop phases, so writer is stopped only after the web server
+    private static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private final QuestionRepository questionRepository;
+    private final ReplyIdAllocator replyIdAllocator;
+    private final ThreadCache threadCache;
+    private final SearchIndex searchIndex;
+    private final ThreadViews threadViews;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ForumProperties.WriteBehind properties;
+    private final BlockingQueue<ReplyDTO> queue;
+    // lock instead of monitor, id allocation may wait for connection and would pin carrier of a virtual thread
+    private final Lock submitLock = new ReentrantLock();
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private volatile boolean running;
+    // set when shutdown timeout elapsed, writer leaves queued replies instead of writing after data source is closed
+    private volatile boolean aborted;
+    private Thread writer;
+
+    public ReplyWriteBehind(QuestionRepository questionRepository, ReplyIdAllocator replyIdAllocator, ThreadCache threadCache,
+                            SearchIndex searchIndex, ThreadViews threadViews, JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ForumProperties forumProperties, MeterRegistry meterRegistry) {
+        this.questionRepository = questionRepository;
+        this.replyIdAllocator = replyIdAllocator;
+        this.threadCache = threadCache;
+        this.searchIndex = searchIndex;
+        this.threadViews = threadViews;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = forumProperties.getWriteBehind();
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.flushTimer = meterRegistry.timer(METRIC_PREFIX + ".flush");
+        this.batchSizes = meterRegistry.summary(METRIC_PREFIX + ".batch.size");
+        this.rejected = meterRegistry.counter(METRIC_PREFIX + ".rejected");
+        this.failed = meterRegistry.counter(METRIC_PREFIX + ".failed");
+    }
+
+    /**
+     * Whether replies are written asynchronously
+     *
+     * @return true when write-behind mode is enabled
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Method accepts Reply for asynchronous insert. Question existence is checked before reply is accepted,
+     * questions with cached thread are not looked up,
+     * if question does not exist runtime exception {@link QuestionNotFoundException} is throw,
+     * if queue is full or writer is not running runtime exception {@link WriteQueueFullException} is throw.
+     *
+     * @param replyDTO   transfer object
+     * @param questionId id of related question
+     * @return ReplyDTO with id the reply will be stored with
+     */
+    public ReplyDTO submit(ReplyDTO replyDTO, Long questionId) {
+        // cached thread proves question exists, otherwise count query checks it without loading the row
+        if (threadCache.etag(questionId) == null && !questionRepository.existsById(questionId)) {
+            throw new QuestionNotFoundException(questionId);
+        }
+        // id allocation and enqueue are one step, so id order matches insert order
+        submitLock.lock();
+        try {
+            if (!running || queue.remainingCapacity() == 0) {
+                rejected.increment();
+                throw new WriteQueueFullException(properties.getQueueCapacity());
+            }
+            ReplyDTO accepted = ReplyDTO.builder()
+                    .id(replyIdAllocator.nextId())
+                    .questionId(questionId)
+                    .author(replyDTO.getAuthor())
+                    .message(replyDTO.getMessage())
+                    .build();
+            queue.add(accepted);
+            return accepted;
+        } finally {
+            submitLock.unlock();
+        }
+    }
+
+    /**
+     * Start background writer when write-behind mode is enabled
+     */
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        aborted = false;
+        writer = new Thread(this::drain, "reply-write-behind");
+        writer.start();
+    }
+
+    /**
+     * Stop accepting replies and wait until writer drains the queue or shutdown timeout elapses,
+     * writer still running after the timeout is interrupted and replies left in the queue are lost
+     */
+    @Override
+    public void stop() {
+        submitLock.lock();
+        try {
+            running = false;
+        } finally {
+            submitLock.unlock();
+        }
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            aborted = true;
+            writer.interrupt();
+            log.warn("Write-behind queue not drained within {}, writer interrupted, {} replies lost",
+                    properties.getShutdownTimeout(), queue.size());
+        }
+        writer = null;
+    }
+
+    /**
+     * Lifecycle phase of writer, it starts before and stops after web server, so no request is rejected
+     * because writer is stopping
+     *
+     * @return phase below web server lifecycle phases
+     */
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Whether background writer is running
+     *
+     * @return true between start and stop
+     */
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    private void drain() {
+        List<ReplyDTO> batch = new ArrayList<>(properties.getBatchSize());
+        while ((running || !queue.isEmpty()) && !aborted) {
+            try {
+                ReplyDTO first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                flushTimer.record(() -> write(batch));
+                batchSizes.record(batch.size());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Write-behind writer failed", ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Insert batch in single transaction, when it fails replies are retried one by one so single bad reply
+     * does not discard whole batch
+     *
+     * @param batch replies in acceptance order
+     */
+    private void write(List<ReplyDTO> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+        } catch (RuntimeException ex) {
+            log.warn("Write-behind batch of {} replies failed, retrying one by one", batch.size(), ex);
+            for (ReplyDTO reply : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(Collections.singletonList(reply)));
+                } catch (RuntimeException replyEx) {
+                    failed.increment();
+                    log.error("Write-behind reply {} of question {} lost", reply.getId(), reply.getQuestionId(), replyEx);
+                }
+            }
+        }
+    }
+
+    private void insert(List<ReplyDTO> replies) {
+        List<Object[]> rows = new ArrayList<>(replies.size());
+        // questions are locked by increments in id order, as by bulk requests, so they cannot deadlock
+        Map<Long, Long> repliesPerQuestion = new TreeMap<>();
+        for (ReplyDTO reply : replies) {
+            rows.add(new Object[]{reply.getId(), reply.getAuthor(), reply.getMessage(), reply.getQuestionId()});
+            repliesPerQuestion.merge(reply.getQuestionId(), 1L, Long::sum);
+        }
+        jdbcTemplate.batchUpdate(INSERT_REPLY, rows);
+        repliesPerQuestion.forEach((questionId, count) -> {
+            questionRepository.incrementReplyCount(questionId, count);
+            threadCache.invalidate(questionId);
+        });
+        threadViews.append(replies);
+        searchIndex.addReplies(replies);
+    }
+}
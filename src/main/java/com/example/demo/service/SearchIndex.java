@@ -0,0 +1,494 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.dto.SearchHitDTO;
+import com.example.demo.exception.SearchIndexRebuildRunningException;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * SearchIndex class, Lucene inverted index of messages of questions and replies.
+ * Posts are added once transaction creating them commits and become visible to search within configured refresh interval.
+ * Index changes are committed to directory only on rebuild and shutdown, after unclean shutdown index has to be rebuilt.
+ * <p>
+ * Rebuilt index is built alongside the live one, which keeps serving searches, and replaces it once complete.
+ * Posts added while it is built are written to both. On disk each index lives in its own subdirectory of configured
+ * directory, file "current" names the live one.
+ */
+@Component
+public class SearchIndex {
+
+    private static final String KEY = "key";
+    private static final String QUESTION_ID = "questionId";
+    private static final String REPLY_ID = "replyId";
+    private static final String AUTHOR = "author";
+    private static final String MESSAGE = "message";
+    private static final String CURRENT = "current";
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final ForumProperties.Search properties;
+    // posts are added and searched under read lock, rebuilt index replaces live one under write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Generation live;
+    private Generation building;
+
+    public SearchIndex(ForumProperties forumProperties) {
+        this.properties = forumProperties.getSearch();
+        String current = readCurrent();
+        deleteStale(current);
+        this.live = open(current);
+    }
+
+    /**
+     * Index questions once current transaction commits, immediately when there is no transaction
+     *
+     * @param questions questions with ids
+     */
+    public void addQuestions(List<QuestionDTO> questions) {
+        afterCommit(() -> questions.forEach(this::putQuestion));
+    }
+
+    /**
+     * Index replies once current transaction commits, immediately when there is no transaction
+     *
+     * @param replies replies with ids and question ids
+     */
+    public void addReplies(List<ReplyDTO> replies) {
+        afterCommit(() -> replies.forEach(this::putReply));
+    }
+
+    /**
+     * Add or replace question in live index and in index being rebuilt
+     *
+     * @param question question with id
+     */
+    void putQuestion(QuestionDTO question) {
+        update(questionDocument(question));
+    }
+
+    /**
+     * Add or replace reply in live index and in index being rebuilt
+     *
+     * @param reply reply with id and question id
+     */
+    void putReply(ReplyDTO reply) {
+        update(replyDocument(reply));
+    }
+
+    /**
+     * Start building new index alongside the live one, posts added from now on are written to both
+     *
+     * @throws SearchIndexRebuildRunningException when rebuild is already running
+     */
+    void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (building != null) {
+                throw new SearchIndexRebuildRunningException();
+            }
+            String name = String.valueOf(Long.parseLong(live.name) + 1);
+            if (!properties.getDirectory().isEmpty()) {
+                // left by rebuild interrupted before it replaced live index
+                deleteRecursively(Paths.get(properties.getDirectory(), name));
+            }
+            building = open(name);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add question to index being rebuilt
+     *
+     * @param question question with id
+     */
+    void rebuildQuestion(QuestionDTO question) {
+        updateRebuilt(questionDocument(question));
+    }
+
+    /**
+     * Add reply to index being rebuilt
+     *
+     * @param reply reply with id and question id
+     */
+    void rebuildReply(ReplyDTO reply) {
+        updateRebuilt(replyDocument(reply));
+    }
+
+    /**
+     * Commit index being rebuilt and make it the live one, previous live index is deleted
+     *
+     * @return number of posts in new live index
+     */
+    long finishRebuild() {
+        Generation rebuilt;
+        lock.readLock().lock();
+        try {
+            rebuilt = checkRebuilding();
+        } finally {
+            lock.readLock().unlock();
+        }
+        // committed outside of write lock, posts added meanwhile stay in writer and are visible after refresh
+        rebuilt.commit();
+        Generation previous;
+        lock.writeLock().lock();
+        try {
+            writeCurrent(rebuilt.name);
+            previous = live;
+            live = rebuilt;
+            building = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        previous.delete();
+        return rebuilt.size();
+    }
+
+    /**
+     * Drop index being rebuilt, live index stays in place
+     */
+    void abortRebuild() {
+        Generation aborted;
+        lock.writeLock().lock();
+        try {
+            aborted = building;
+            building = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (aborted != null) {
+            aborted.delete();
+        }
+    }
+
+    /**
+     * Commit live index changes to directory and make them visible to search immediately
+     */
+    void commit() {
+        lock.readLock().lock();
+        try {
+            live.commit();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of posts in live index including not yet visible ones
+     *
+     * @return number of indexed posts
+     */
+    long size() {
+        lock.readLock().lock();
+        try {
+            return live.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find posts matching query ordered by relevance. Query terms are all required, "quoted phrases", "-" negation,
+     * "|" alternative and "*" prefix are supported.
+     *
+     * @param text   query text
+     * @param offset number of best hits to skip
+     * @param limit  maximum number of returned hits
+     * @return list of hits, empty when query has no searchable terms
+     */
+    List<SearchHitDTO> search(String text, int offset, int limit) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, MESSAGE);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query query = parser.parse(text);
+        if (query == null) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            SearcherManager searcherManager = live.searcherManager;
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                ScoreDoc[] scoreDocs = searcher.search(query, offset + limit).scoreDocs;
+                List<SearchHitDTO> hits = new ArrayList<>(Math.max(0, scoreDocs.length - offset));
+                for (int i = offset; i < scoreDocs.length; i++) {
+                    hits.add(toHit(searcher.doc(scoreDocs[i].doc), scoreDocs[i].score));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stop refreshing and close index, pending changes of live index are committed, index being rebuilt is dropped
+     *
+     * @throws IOException when index cannot be written
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        abortRebuild();
+        live.close();
+    }
+
+    private void update(Document document) {
+        lock.readLock().lock();
+        try {
+            live.update(document);
+            if (building != null) {
+                building.update(document);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void updateRebuilt(Document document) {
+        lock.readLock().lock();
+        try {
+            checkRebuilding().update(document);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Generation checkRebuilding() {
+        if (building == null) {
+            throw new IllegalStateException("Search index rebuild is not running");
+        }
+        return building;
+    }
+
+    private Generation open(String name) {
+        Path path = properties.getDirectory().isEmpty() ? null : Paths.get(properties.getDirectory(), name);
+        try {
+            Directory directory = path == null ? new ByteBuffersDirectory() : FSDirectory.open(path);
+            return new Generation(name, path, directory, new IndexWriter(directory, new IndexWriterConfig(analyzer)),
+                    properties.getRefreshInterval().toMillis() / 1000.0);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private String readCurrent() {
+        if (properties.getDirectory().isEmpty()) {
+            return "1";
+        }
+        Path current = Paths.get(properties.getDirectory(), CURRENT);
+        try {
+            return Files.exists(current) ? Files.readString(current, StandardCharsets.UTF_8).trim() : "1";
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeCurrent(String name) {
+        if (properties.getDirectory().isEmpty()) {
+            return;
+        }
+        Path current = Paths.get(properties.getDirectory(), CURRENT);
+        Path written = Paths.get(properties.getDirectory(), CURRENT + ".tmp");
+        try {
+            Files.writeString(written, name, StandardCharsets.UTF_8);
+            Files.move(written, current, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Delete index subdirectories other than the live one, left by rebuilds interrupted by shutdown
+     *
+     * @param current name of live index
+     */
+    private void deleteStale(String current) {
+        if (properties.getDirectory().isEmpty() || !Files.isDirectory(Paths.get(properties.getDirectory()))) {
+            return;
+        }
+        try (Stream<Path> paths = Files.list(Paths.get(properties.getDirectory()))) {
+            for (Path path : paths.toList()) {
+                String name = path.getFileName().toString();
+                if (Files.isDirectory(path) && name.chars().allMatch(Character::isDigit) && !name.equals(current)) {
+                    deleteRecursively(path);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path file : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static Document questionDocument(QuestionDTO question) {
+        Document document = new Document();
+        document.add(new StringField(KEY, "q" + question.getId(), Field.Store.NO));
+        document.add(new StoredField(QUESTION_ID, question.getId()));
+        document.add(new StoredField(AUTHOR, question.getAuthor()));
+        document.add(new TextField(MESSAGE, question.getMessage(), Field.Store.YES));
+        return document;
+    }
+
+    private static Document replyDocument(ReplyDTO reply) {
+        Document document = new Document();
+        document.add(new StringField(KEY, "r" + reply.getId(), Field.Store.NO));
+        document.add(new StoredField(QUESTION_ID, reply.getQuestionId()));
+        document.add(new StoredField(REPLY_ID, reply.getId()));
+        document.add(new StoredField(AUTHOR, reply.getAuthor()));
+        document.add(new TextField(MESSAGE, reply.getMessage(), Field.Store.YES));
+        return document;
+    }
+
+    private SearchHitDTO toHit(Document document, float score) {
+        IndexableField replyId = document.getField(REPLY_ID);
+        return SearchHitDTO.builder()
+                .questionId(document.getField(QUESTION_ID).numericValue().longValue())
+                .replyId(replyId == null ? null : replyId.numericValue().longValue())
+                .author(document.get(AUTHOR))
+                .message(document.get(MESSAGE))
+                .score(score)
+                .build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Index in its own directory with writer and periodically refreshed searcher
+     */
+    private static final class Generation {
+
+        private final String name;
+        private final Path path;
+        private final Directory directory;
+        private final IndexWriter indexWriter;
+        private final SearcherManager searcherManager;
+        private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+        private Generation(String name, Path path, Directory directory, IndexWriter indexWriter, double refreshSeconds)
+                throws IOException {
+            this.name = name;
+            this.path = path;
+            this.directory = directory;
+            this.indexWriter = indexWriter;
+            this.searcherManager = new SearcherManager(indexWriter, null);
+            this.reopenThread = new ControlledRealTimeReopenThread<>(indexWriter, searcherManager, refreshSeconds, refreshSeconds);
+            reopenThread.setName("search-index-refresh-" + name);
+            reopenThread.setDaemon(true);
+            reopenThread.start();
+        }
+
+        private void update(Document document) {
+            try {
+                indexWriter.updateDocument(new Term(KEY, document.get(KEY)), document);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void commit() {
+            try {
+                indexWriter.commit();
+                searcherManager.maybeRefreshBlocking();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private long size() {
+            return indexWriter.getDocStats().numDocs;
+        }
+
+        /**
+         * Stop refreshing and close index, pending changes are committed
+         */
+        private void close() throws IOException {
+            reopenThread.close();
+            searcherManager.close();
+            indexWriter.close();
+            directory.close();
+        }
+
+        /**
+         * Stop refreshing, discard pending changes and delete index files
+         */
+        private void delete() {
+            try {
+                reopenThread.close();
+                searcherManager.close();
+                indexWriter.rollback();
+                directory.close();
+                if (path != null) {
+                    deleteRecursively(path);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds search index from database on startup in background thread, so startup does not wait for the walk over
+ * all posts. Searches are served from the live index meanwhile, which is empty when index is kept in memory.
+ * By default index is rebuilt only when kept in memory, index in persistent directory is reopened as it is,
+ * forum.search.rebuild-on-startup overrides that.
+ */
+@Slf4j
+@Component
+public class SearchIndexInitializer implements ApplicationRunner {
+
+    private final QuestionSearchService questionSearchService;
+    private final ForumProperties forumProperties;
+
+    public SearchIndexInitializer(QuestionSearchService questionSearchService, ForumProperties forumProperties) {
+        this.questionSearchService = questionSearchService;
+        this.forumProperties = forumProperties;
+    }
+
+    /**
+     * Start rebuild of search index when enabled
+     *
+     * @param args application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        ForumProperties.Search search = forumProperties.getSearch();
+        boolean rebuild = search.getRebuildOnStartup() != null
+                ? search.getRebuildOnStartup()
+                : search.getDirectory().isEmpty();
+        if (!rebuild) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                questionSearchService.rebuild();
+            } catch (RuntimeException ex) {
+                log.error("Search index rebuild on startup failed", ex);
+            }
+        }, "search-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
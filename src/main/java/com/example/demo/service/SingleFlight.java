@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key. First caller runs the load on its own thread, callers arriving while
+ * it runs wait for it and share its result or exception. Load is forgotten once it completes, so nothing is cached.
+ *
+ * @param <K> type of key
+ * @param <V> type of loaded value
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final IntConsumer completed;
+
+    /**
+     * @param completed called by the loading caller once its load completed with number of callers which shared it
+     */
+    SingleFlight(IntConsumer completed) {
+        this.completed = completed;
+    }
+
+    /**
+     * Run load of key unless another caller is already loading it, then wait for that load
+     *
+     * @param key    key of load
+     * @param loader load run by the first caller
+     * @return loaded value, shared by all callers of the same load
+     */
+    V execute(K key, Supplier<V> loader) {
+        Flight<V> flight = new Flight<>();
+        Flight<V> running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            V value = loader.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            flight.result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            flights.remove(key, flight);
+            completed.accept(flight.waiters.get());
+        }
+    }
+
+    /**
+     * Detach running load of key, callers arriving later start new load, callers already waiting get the old result
+     *
+     * @param key key of load
+     */
+    void forget(K key) {
+        flights.remove(key);
+    }
+
+    /**
+     * @return number of callers currently waiting for load of another caller
+     */
+    int waiting() {
+        return waiting.get();
+    }
+
+    private V await(Flight<V> flight) {
+        flight.waiters.incrementAndGet();
+        waiting.incrementAndGet();
+        try {
+            return flight.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Running load with callers waiting for it
+     */
+    private static final class Flight<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+}
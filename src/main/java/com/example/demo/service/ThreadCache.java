@@ -0,0 +1,304 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.ThreadDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of first page of threads keyed by question id, evicted by size and time to live.
+ * Threads are cached together with ETag and, when enabled, already serialized to JSON.
+ * <p>
+ * Heap tier keeps recent and frequently read threads, its admission policy keeps the hot working set when
+ * crawlers sweep old threads. Threads evicted by size are moved to {@link MappedThreadStore} and served from there
+ * without being loaded again, until they expire or are invalidated. Threads served from mapped tier carry only JSON.
+ * <p>
+ * Invalidation leaves a tombstone stamped with logical clock. Loader takes a stamp before reading database and
+ * its result is rejected if the question was invalidated after that, so a load racing with a new reply
+ * can never overwrite newer state and reply count seen by readers never goes backwards.
+ * <p>
+ * Concurrent misses of the same question are coalesced, only one caller loads the thread and the others wait
+ * for its result. Invalidation detaches running load, so callers arriving after new reply load the thread again.
+ */
+@Component
+public class ThreadCache {
+
+    private static final String METRIC_PREFIX = "forum.thread.cache";
+
+    private final ObjectMapper objectMapper;
+    private final boolean serialized;
+    private final long ttlNanos;
+    private final Cache<Long, Entry> cache;
+    private final MappedThreadStore mappedStore;
+    private final SingleFlight<Long, RenderedThread> loads;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong evictedTombstoneStamp = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter mappedHits;
+    private final DistributionSummary loadWaiters;
+
+    public ThreadCache(ForumProperties forumProperties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        ForumProperties.ThreadCache properties = forumProperties.getCache().getThread();
+        this.objectMapper = objectMapper;
+        this.serialized = properties.isSerialized();
+        this.ttlNanos = properties.getTtl().toNanos();
+        ForumProperties.MappedThreadCache mapped = properties.getMapped();
+        this.mappedStore = mapped.isEnabled()
+                ? new MappedThreadStore(mapped.getDirectory().isEmpty() ? null : Paths.get(mapped.getDirectory()),
+                mapped.getCapacity().toBytes())
+                : null;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .executor(Runnable::run)
+                .evictionListener(this::onEviction)
+                .removalListener(this::onRemoval)
+                .build();
+
+        this.hits = meterRegistry.counter(METRIC_PREFIX + ".hits");
+        this.misses = meterRegistry.counter(METRIC_PREFIX + ".misses");
+        this.evictions = meterRegistry.counter(METRIC_PREFIX + ".evictions");
+        Gauge.builder(METRIC_PREFIX + ".size", cache, Cache::estimatedSize).register(meterRegistry);
+        this.mappedHits = meterRegistry.counter(METRIC_PREFIX + ".mapped.hits");
+        this.loadWaiters = meterRegistry.summary(METRIC_PREFIX + ".load.waiters");
+        this.loads = properties.isSingleFlight() ? new SingleFlight<>(loadWaiters::record) : null;
+        if (loads != null) {
+            Gauge.builder(METRIC_PREFIX + ".load.waiting", loads, SingleFlight::waiting).register(meterRegistry);
+        }
+        if (mappedStore != null) {
+            Gauge.builder(METRIC_PREFIX + ".mapped.size", mappedStore, MappedThreadStore::size).register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".mapped.bytes", mappedStore, MappedThreadStore::usedBytes).register(meterRegistry);
+            FunctionCounter.builder(METRIC_PREFIX + ".mapped.evictions", mappedStore, MappedThreadStore::evictions)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Method returns cached thread, thread found only in mapped tier has no ThreadDTO
+     *
+     * @param questionId id of question
+     * @return cached RenderedThread or null when thread is not cached
+     */
+    public RenderedThread get(Long questionId) {
+        Entry entry = cache.getIfPresent(questionId);
+        if (entry != null && entry.thread != null) {
+            hits.increment();
+            return entry.thread;
+        }
+        RenderedThread mapped = entry == null && mappedStore != null ? mappedStore.get(questionId) : null;
+        if (mapped == null) {
+            misses.increment();
+            return null;
+        }
+        mappedHits.increment();
+        return mapped;
+    }
+
+    /**
+     * Method returns cached thread or loads and caches it on miss. Concurrent misses of the same question share
+     * single load, the loader runs on the thread of the first caller.
+     *
+     * @param questionId id of question
+     * @param loader     reads first page of thread from database
+     * @return cached or loaded RenderedThread, thread found only in mapped tier has no ThreadDTO
+     */
+    public RenderedThread get(Long questionId, Function<Long, ThreadDTO> loader) {
+        RenderedThread cached = get(questionId);
+        if (cached != null) {
+            return cached;
+        }
+        if (loads == null) {
+            return load(questionId, loader);
+        }
+        return loads.execute(questionId, () -> {
+            // previous load could have completed between the miss and the start of this one
+            Entry entry = cache.getIfPresent(questionId);
+            return entry != null && entry.thread != null ? entry.thread : load(questionId, loader);
+        });
+    }
+
+    /**
+     * Method returns ETag of cached thread, it does not count as cache hit or miss
+     *
+     * @param questionId id of question
+     * @return ETag or null when thread is not cached
+     */
+    public String etag(Long questionId) {
+        Entry entry = cache.getIfPresent(questionId);
+        if (entry == null) {
+            return mappedStore == null ? null : mappedStore.etag(questionId);
+        }
+        return entry.thread == null ? null : entry.thread.getEtag();
+    }
+
+    /**
+     * Method tells if thread was invalidated and has not been loaded since, until the tombstone expires.
+     * Such thread should be loaded from primary database, replica may not have the change yet.
+     *
+     * @param questionId id of question
+     * @return true when cache holds tombstone of the question
+     */
+    public boolean isInvalidated(Long questionId) {
+        Entry entry = cache.getIfPresent(questionId);
+        return entry != null && entry.thread == null;
+    }
+
+    /**
+     * Method returns stamp which has to be taken before thread is loaded from database and passed to {@link #put}
+     *
+     * @return current logical clock value
+     */
+    public long stamp() {
+        return clock.get();
+    }
+
+    /**
+     * Method renders loaded thread and caches it unless question was invalidated after loading started
+     *
+     * @param questionId id of question
+     * @param thread     loaded ThreadDTO
+     * @param stamp      value of {@link #stamp()} taken before loading
+     * @return rendered thread, returned even if it was not cached
+     */
+    public RenderedThread put(Long questionId, ThreadDTO thread, long stamp) {
+        RenderedThread rendered = render(thread);
+        cache.asMap().compute(questionId, (id, current) -> {
+            if (current == null) {
+                // tombstone of this question could have been evicted while loading
+                return evictedTombstoneStamp.get() > stamp ? null : new Entry(rendered, stamp, expiresAt());
+            }
+            return current.stamp > stamp ? current : new Entry(rendered, stamp, expiresAt());
+        });
+        return rendered;
+    }
+
+    /**
+     * Method invalidates cached thread, inside transaction invalidation is deferred until commit
+     * so readers cannot cache state from before the commit.
+     *
+     * @param questionId id of question
+     */
+    public void invalidate(Long questionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(questionId);
+                }
+            });
+        } else {
+            evict(questionId);
+        }
+    }
+
+    private RenderedThread load(Long questionId, Function<Long, ThreadDTO> loader) {
+        long stamp = stamp();
+        return put(questionId, loader.apply(questionId), stamp);
+    }
+
+    private RenderedThread render(ThreadDTO thread) {
+        if (!serialized) {
+            return new RenderedThread(thread, null, RenderedThread.etagOf(thread));
+        }
+        try {
+            return new RenderedThread(thread, objectMapper.writeValueAsBytes(thread), RenderedThread.etagOf(thread));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Release mapped tier
+     */
+    @PreDestroy
+    public void close() {
+        if (mappedStore != null) {
+            mappedStore.close();
+        }
+    }
+
+    private void evict(Long questionId) {
+        cache.put(questionId, new Entry(null, clock.incrementAndGet(), expiresAt()));
+        // load started before the tombstone was put would return state from before the invalidation
+        if (loads != null) {
+            loads.forget(questionId);
+        }
+        // thread demoted before the tombstone was put is dropped, tombstone blocks later demotion of older entry
+        if (mappedStore != null) {
+            mappedStore.remove(questionId);
+        }
+    }
+
+    private long expiresAt() {
+        return System.nanoTime() + ttlNanos;
+    }
+
+    /**
+     * Move thread evicted by size to mapped tier, called atomically with eviction, so it cannot race with invalidation
+     *
+     * @param questionId id of question
+     * @param entry      evicted entry
+     * @param cause      reason of eviction
+     */
+    private void onEviction(Long questionId, Entry entry, RemovalCause cause) {
+        if (mappedStore == null || entry == null || entry.thread == null || cause != RemovalCause.SIZE) {
+            return;
+        }
+        byte[] json = entry.thread.getJson();
+        try {
+            if (json == null) {
+                json = objectMapper.writeValueAsBytes(entry.thread.getThread());
+            }
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        mappedStore.put(questionId, json, entry.thread.getEtag(), entry.expiresAt);
+    }
+
+    private void onRemoval(Long questionId, Entry entry, RemovalCause cause) {
+        if (entry == null || !cause.wasEvicted()) {
+            return;
+        }
+        if (entry.thread == null) {
+            evictedTombstoneStamp.accumulateAndGet(entry.stamp, Math::max);
+        } else {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Cached thread or tombstone (null thread) of invalidated question
+     */
+    private static final class Entry {
+
+        private final RenderedThread thread;
+        private final long stamp;
+        private final long expiresAt;
+
+        private Entry(RenderedThread thread, long stamp, long expiresAt) {
+            this.thread = thread;
+            this.stamp = stamp;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
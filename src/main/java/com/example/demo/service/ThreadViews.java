@@ -0,0 +1,244 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.dto.ThreadDTO;
+import com.example.demo.dto.ThreadReplyDTO;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Reply;
+import com.example.demo.entity.ThreadView;
+import com.example.demo.repository.QuestionRepository;
+import com.example.demo.repository.ReplyRepository;
+import com.example.demo.repository.ThreadViewRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Materialized views of thread first pages. Each view holds question and its replies with lowest ids, one more than
+ * the largest page, serialized into single compact document, so any first page is read with one primary key lookup
+ * whatever number of replies the thread has.
+ * <p>
+ * Views are maintained in transactions which create questions and insert replies, after reply count of question is
+ * incremented, so concurrent writers of the same thread are serialized by question row lock. View is appended to only
+ * while it holds every reply counted by its question, replies inserted without appending them, e.g. by the
+ * non-blocking variant, make the view rebuilt on the next appended reply. Threads without view, e.g. created before
+ * views were introduced, are read from REPLIES table until they are replied to or views are rebuilt.
+ */
+@Slf4j
+@Component
+public class ThreadViews {
+
+    private final ThreadViewRepository threadViewRepository;
+    private final QuestionRepository questionRepository;
+    private final ReplyRepository replyRepository;
+    private final ForumProperties forumProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public ThreadViews(ThreadViewRepository threadViewRepository, QuestionRepository questionRepository,
+                       ReplyRepository replyRepository, ForumProperties forumProperties,
+                       TransactionTemplate transactionTemplate) {
+        this.threadViewRepository = threadViewRepository;
+        this.questionRepository = questionRepository;
+        this.replyRepository = replyRepository;
+        this.forumProperties = forumProperties;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Create empty view of new question, must be called in transaction which inserts the question
+     *
+     * @param question saved question with id
+     */
+    public void create(Question question) {
+        threadViewRepository.save(view(question, new ArrayList<>()));
+    }
+
+    /**
+     * Create empty views of new questions, must be called in transaction which inserts the questions
+     *
+     * @param questions saved questions with ids
+     */
+    public void createAll(List<Question> questions) {
+        List<ThreadView> views = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            views.add(view(question, new ArrayList<>()));
+        }
+        threadViewRepository.saveAll(views);
+    }
+
+    /**
+     * Append replies to views of their questions, must be called in transaction which inserts the replies after
+     * reply counts of the questions are incremented. Replies are appended in id order, view which is missing,
+     * misses earlier replies or holds reply with higher id is rebuilt instead.
+     *
+     * @param replies inserted replies with ids and question ids
+     */
+    public void append(List<ReplyDTO> replies) {
+        Map<Long, List<ReplyDTO>> repliesPerQuestion = new LinkedHashMap<>();
+        for (ReplyDTO reply : replies) {
+            repliesPerQuestion.computeIfAbsent(reply.getQuestionId(), questionId -> new ArrayList<>()).add(reply);
+        }
+        int capacity = capacity();
+        repliesPerQuestion.forEach((questionId, questionReplies) -> {
+            questionReplies.sort(Comparator.comparing(ReplyDTO::getId));
+            for (int i = 0; i < questionReplies.size(); i++) {
+                ReplyDTO reply = questionReplies.get(i);
+                int pending = questionReplies.size() - i;
+                if (threadViewRepository.appendReply(questionId, reply.getId(), encode(reply), capacity, pending) == 0) {
+                    // full view holds none of the remaining replies, otherwise rebuild places all of them
+                    if (!threadViewRepository.isFullBefore(questionId, reply.getId(), capacity)) {
+                        rebuild(questionId);
+                    }
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * Read first page of thread from its view
+     *
+     * @param questionId id of question
+     * @param pageSize   number of replies on page
+     * @return ThreadDTO transfer object, null when thread has no view or view does not hold all replies it should
+     */
+    public ThreadDTO read(Long questionId, int pageSize) {
+        ThreadViewRepository.ThreadDocument document = threadViewRepository.findDocument(questionId).orElse(null);
+        if (document == null) {
+            return null;
+        }
+        // view which is not full holds all replies, unless they were inserted without appending them
+        // or view was built with smaller capacity
+        if (document.getReplyCount() < capacity() && document.getReplyCount() != document.getTotalReplies()) {
+            return null;
+        }
+        boolean hasNext = document.getReplyCount() > pageSize;
+        return decode(document.getDocument(), Math.min(pageSize, document.getReplyCount()), hasNext,
+                document.getTotalReplies());
+    }
+
+    /**
+     * Rebuild view of single question from QUESTIONS and REPLIES tables, in current transaction
+     *
+     * @param questionId id of question
+     */
+    public void rebuild(Long questionId) {
+        questionRepository.findById(questionId).ifPresent(question -> {
+            List<ThreadReplyDTO> replies = new ArrayList<>();
+            for (Reply reply : replyRepository.findReplyPage(questionId, 0L, PageRequest.of(0, capacity()))) {
+                replies.add(ThreadReplyDTO.builder().id(reply.getId()).author(reply.getAuthor()).message(reply.getMessage()).build());
+            }
+            threadViewRepository.save(view(question, replies));
+        });
+    }
+
+    /**
+     * Rebuild views of all questions, questions are walked in id order in bounded batches,
+     * each batch is rebuilt in its own transaction
+     *
+     * @return number of rebuilt views
+     */
+    public long rebuildAll() {
+        long start = System.currentTimeMillis();
+        int batchSize = forumProperties.getReconciliation().getBatchSize();
+        long rebuilt = 0;
+        long after = 0L;
+        List<Long> ids;
+        do {
+            long from = after;
+            ids = transactionTemplate.execute(status -> {
+                List<Long> batch = questionRepository.findIdPage(from, PageRequest.of(0, batchSize));
+                batch.forEach(this::rebuild);
+                return batch;
+            });
+            if (ids.isEmpty()) {
+                break;
+            }
+            rebuilt += ids.size();
+            after = ids.get(ids.size() - 1);
+        } while (ids.size() == batchSize);
+        log.info("Rebuilt {} thread views in {} ms", rebuilt, System.currentTimeMillis() - start);
+        return rebuilt;
+    }
+
+    /**
+     * Number of replies held in view, one more than the largest page tells if next page exists
+     *
+     * @return capacity of view
+     */
+    private int capacity() {
+        return forumProperties.getPagination().getMaxLimit() + 1;
+    }
+
+    private ThreadView view(Question question, List<ThreadReplyDTO> replies) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(question.getId());
+            out.writeUTF(question.getAuthor());
+            out.writeUTF(question.getMessage());
+            for (ThreadReplyDTO reply : replies) {
+                write(out, reply);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return ThreadView.builder()
+                .questionId(question.getId())
+                .replyCount(replies.size())
+                .lastReplyId(replies.isEmpty() ? 0L : replies.get(replies.size() - 1).getId())
+                .document(bytes.toByteArray())
+                .build();
+    }
+
+    private byte[] encode(ReplyDTO reply) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(reply.getId());
+            out.writeUTF(reply.getAuthor());
+            out.writeUTF(reply.getMessage());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void write(DataOutputStream out, ThreadReplyDTO reply) throws IOException {
+        out.writeLong(reply.getId());
+        out.writeUTF(reply.getAuthor());
+        out.writeUTF(reply.getMessage());
+    }
+
+    private ThreadDTO decode(byte[] document, int replyCount, boolean hasNext, long totalReplies) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(document))) {
+            ThreadDTO.ThreadDTOBuilder thread = ThreadDTO.builder()
+                    .id(in.readLong())
+                    .author(in.readUTF())
+                    .message(in.readUTF())
+                    .totalReplies(totalReplies);
+            List<ThreadReplyDTO> replies = new ArrayList<>(replyCount);
+            for (int i = 0; i < replyCount; i++) {
+                replies.add(new ThreadReplyDTO(in.readLong(), in.readUTF(), in.readUTF()));
+            }
+            return thread
+                    .replies(replies)
+                    .nextCursor(hasNext ? PageCursor.encode(replies.get(replies.size() - 1).getId()) : null)
+                    .build();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+-- Schema as created by Hibernate before per table sequences, ids of both tables come from one global sequence.
+create sequence if not exists hibernate_sequence start with 1 increment by 1;
+
+create table if not exists questions (
+    id bigint not null,
+    author varchar(255) not null,
+    message varchar(255) not null,
+    primary key (id)
+);
+
+create table if not exists replies (
+    id bigint not null,
+    author varchar(255) not null,
+    message varchar(255) not null,
+    question_id bigint,
+    primary key (id)
+);
+
+alter table replies add constraint if not exists FK_REPLIES_QUESTION_ID foreign key (question_id) references questions;
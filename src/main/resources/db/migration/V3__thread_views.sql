@@ -0,0 +1,10 @@
+-- Materialized first page of each thread, filled as replies are inserted and by rebuild of all thread views.
+create table if not exists thread_views (
+    question_id bigint not null,
+    reply_count integer not null,
+    last_reply_id bigint not null,
+    document varbinary(1000000) not null,
+    primary key (question_id)
+);
+
+alter table thread_views add constraint if not exists FK_THREAD_VIEWS_QUESTION_ID foreign key (question_id) references questions;
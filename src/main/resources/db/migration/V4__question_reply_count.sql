@@ -0,0 +1,6 @@
+-- Denormalized number of replies of each question, backfilled from REPLIES table. Column may already exist
+-- in databases updated by Hibernate before migrations, count is recomputed there as well.
+-- Default keeps inserts of application versions without the column working during rollout.
+alter table questions add column if not exists reply_count bigint default 0 not null;
+
+update questions set reply_count = (select count(*) from replies r where r.question_id = questions.id);
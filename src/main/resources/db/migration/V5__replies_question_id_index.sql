@@ -0,0 +1,2 @@
+-- Replies of thread are read by keyset (seek) on (question_id, id), index keeps it a range scan.
+create index if not exists IDX_REPLIES_QUESTION_ID_ID on replies (question_id, id);
@@ -0,0 +1,45 @@
+package com.example.demo.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Integration tests of id allocation size of WebFlux application, starts it twice against the same embedded database.
+ */
+class IdAllocationSizeCheckTest {
+
+    private static final String[] ARGS = {
+            "--server.port=0",
+            "--spring.r2dbc.url=r2dbc:h2:mem:///idallocation?options=DB_CLOSE_DELAY=-1",
+            "--spring.flyway.url=jdbc:h2:mem:idallocation;DB_CLOSE_DELAY=-1"};
+
+    /**
+     * When allocation size is changed after sequences were created by migration then application should not start.
+     */
+    @Test
+    void shouldFailStartup_whenAllocationSizeDiffersFromSequenceIncrement() {
+        try (ConfigurableApplicationContext context = application().run(ARGS)) {
+            context.getBean(ReactiveForumApplication.class);
+        }
+
+        String[] changed = Arrays.copyOf(ARGS, ARGS.length + 1);
+        changed[ARGS.length] = "--forum.id.allocation-size=10";
+        Exception ex = assertThrows(Exception.class, () -> application().run(changed).close());
+
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        assertInstanceOf(IllegalStateException.class, cause);
+        assertEquals("Increment of sequence QUESTION_SEQ is 50 while id allocation size is 10", cause.getMessage());
+    }
+
+    private static SpringApplicationBuilder application() {
+        return new SpringApplicationBuilder(ReactiveForumApplication.class).profiles(ReactiveForumApplication.PROFILE);
+    }
+}
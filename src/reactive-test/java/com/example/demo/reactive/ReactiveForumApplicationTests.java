@@ -0,0 +1,142 @@
+package com.example.demo.reactive;
+
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.service.PageCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * End to end tests of WebFlux application over R2DBC, database is migrated by Flyway as in JPA application.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(ReactiveForumApplication.PROFILE)
+class ReactiveForumApplicationTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * When replies are posted to question then thread should be paged by cursor and reply count maintained.
+     */
+    @Test
+    void shouldCreateRepliesAndPageThread() {
+        QuestionDTO question = createQuestion();
+        ReplyDTO first = createReply(question.getId());
+        ReplyDTO second = createReply(question.getId());
+        assertEquals(question.getId(), first.getQuestionId());
+
+        webTestClient.get().uri("/questions/{id}?limit=1", question.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(question.getId())
+                .jsonPath("$.replies.length()").isEqualTo(1)
+                .jsonPath("$.replies[0].id").isEqualTo(first.getId())
+                .jsonPath("$.totalReplies").isEqualTo(2)
+                .jsonPath("$.nextCursor").isEqualTo(PageCursor.encode(first.getId()));
+
+        webTestClient.get().uri("/questions/{id}?limit=1&after={after}", question.getId(), PageCursor.encode(first.getId()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.replies[0].id").isEqualTo(second.getId())
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    /**
+     * When reply is posted then thread view of the default application should be dropped, it does not hold the reply.
+     */
+    @Test
+    void shouldDropThreadViewOnReply() {
+        QuestionDTO question = createQuestion();
+        databaseClient.sql("insert into thread_views (question_id, reply_count, last_reply_id, document) values (:id, 0, 0, X'00')")
+                .bind("id", question.getId())
+                .then()
+                .block();
+
+        createReply(question.getId());
+
+        assertEquals(0L, databaseClient.sql("select count(*) from thread_views where question_id = :id")
+                .bind("id", question.getId())
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block());
+    }
+
+    /**
+     * When questions are listed then page should hold questions with reply counts in id order.
+     */
+    @Test
+    void shouldListQuestions() {
+        QuestionDTO question = createQuestion();
+        createReply(question.getId());
+
+        webTestClient.get().uri("/questions?after={after}", PageCursor.encode(question.getId() - 1))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.questions[0].id").isEqualTo(question.getId())
+                .jsonPath("$.questions[0].replies").isEqualTo(1);
+    }
+
+    /**
+     * When question does not exist then thread and reply should return 404 and invalid cursor 400.
+     */
+    @Test
+    void shouldMapErrorsToStatuses() {
+        webTestClient.get().uri("/questions/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.post().uri("/questions/{id}/reply", Long.MAX_VALUE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ReplyDTO.builder().author("Reply author").message("Reply message").build())
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.get().uri("/questions?after=invalid")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.post().uri("/questions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Collections.singletonMap("author", "Author"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private QuestionDTO createQuestion() {
+        QuestionDTO question = webTestClient.post().uri("/questions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(QuestionDTO.builder().author("Author").message("Message").build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(QuestionDTO.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(question);
+        return question;
+    }
+
+    private ReplyDTO createReply(Long questionId) {
+        return webTestClient.post().uri("/questions/{id}/reply", questionId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ReplyDTO.builder().author("Reply author").message("Reply message").build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ReplyDTO.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
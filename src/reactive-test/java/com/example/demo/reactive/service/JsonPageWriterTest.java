@@ -0,0 +1,95 @@
+package com.example.demo.reactive.service;
+
+import com.example.demo.dto.ThreadDTO;
+import com.example.demo.dto.ThreadReplyDTO;
+import com.example.demo.service.PageCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonPageWriterTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final JsonPageWriter jsonPageWriter = new JsonPageWriter(objectMapper);
+
+    /**
+     * When page has more items than page size then streamed JSON should equal serialized ThreadDTO
+     * with page size replies and cursor of the last one, and each reply should be emitted as separate buffer.
+     */
+    @Test
+    void shouldStreamThreadAsSerializedThreadDTO() throws Exception {
+        List<ThreadReplyDTO> replies = Arrays.asList(reply(1L), reply(2L), reply(3L));
+        ThreadDTO expected = ThreadDTO.builder()
+                .id(7L)
+                .author("Author")
+                .message("Message \"quoted\"")
+                .replies(replies.subList(0, 2))
+                .totalReplies(3L)
+                .nextCursor(PageCursor.encode(2L))
+                .build();
+
+        List<DataBuffer> buffers = write(Flux.fromIterable(replies), 2, Collections.singletonMap("totalReplies", 3L));
+
+        assertEquals(4, buffers.size());
+        assertEquals(objectMapper.writeValueAsString(expected), join(buffers));
+    }
+
+    /**
+     * When page is not full then cursor should be null, and empty page should be written as empty array.
+     */
+    @Test
+    void shouldWriteNullCursorOnLastPage() throws Exception {
+        ThreadDTO expected = ThreadDTO.builder()
+                .id(7L)
+                .author("Author")
+                .message("Message \"quoted\"")
+                .replies(Collections.emptyList())
+                .totalReplies(0L)
+                .build();
+
+        List<DataBuffer> buffers = write(Flux.empty(), 2, Collections.singletonMap("totalReplies", 0L));
+
+        assertEquals(objectMapper.writeValueAsString(expected), join(buffers));
+    }
+
+    private List<DataBuffer> write(Flux<ThreadReplyDTO> replies, int pageSize, Map<String, ?> tail) {
+        Map<String, Object> head = new LinkedHashMap<>();
+        head.put("id", 7L);
+        head.put("author", "Author");
+        head.put("message", "Message \"quoted\"");
+        return jsonPageWriter.write(DefaultDataBufferFactory.sharedInstance, head, "replies", replies, pageSize,
+                        ThreadReplyDTO::getId, tail)
+                .collectList()
+                .block();
+    }
+
+    private static String join(List<DataBuffer> buffers) {
+        StringBuilder json = new StringBuilder();
+        for (DataBuffer buffer : buffers) {
+            json.append(buffer.toString(StandardCharsets.UTF_8));
+            DataBufferUtils.release(buffer);
+        }
+        return json.toString();
+    }
+
+    private static ThreadReplyDTO reply(Long id) {
+        return ThreadReplyDTO.builder()
+                .id(id)
+                .author("Reply author " + id)
+                .message("Reply message " + id)
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.reactive;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.controller.ControllerExceptionHandler;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
+
+/**
+ * WebFlux and R2DBC variant of the forum API, runs with "reactive" Spring profile from application-reactive.yml.
+ * Shares DTOs, exception handling, configuration and Flyway migrations with the JPA application.
+ */
+@SpringBootApplication
+@EnableConfigurationProperties(ForumProperties.class)
+@Import(ControllerExceptionHandler.class)
+public class ReactiveForumApplication {
+
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveForumApplication.class)
+                .profiles(PROFILE)
+                .run(args);
+    }
+
+}
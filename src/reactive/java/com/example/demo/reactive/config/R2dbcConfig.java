@@ -0,0 +1,169 @@
+package com.example.demo.reactive.config;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.reactive.entity.Question;
+import com.example.demo.reactive.entity.Reply;
+import com.example.demo.reactive.repository.PooledLoIdAllocator;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+import io.r2dbc.spi.TransactionDefinition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcConnectionDetails;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * R2DBC configuration, pools connections to H2 and assigns ids of new rows from the sequences JPA application uses
+ */
+@Configuration
+public class R2dbcConfig {
+
+    /**
+     * Pool of connections configured from spring.r2dbc.pool properties. r2dbc-h2 runs every statement
+     * synchronously on the subscribing thread. Without acquisition scheduler the pool hands a released connection
+     * to the next waiter inside its drain loop, on the thread which released it, and the waiter runs its whole
+     * request there. Under steady load the loop never empties and the event loop thread running it stops serving
+     * its other connections until load stops. Delivering acquired connections on bounded elastic scheduler keeps
+     * blocking H2 work off event loop threads.
+     *
+     * @param properties        spring.r2dbc properties, pool settings are read from them
+     * @param connectionDetails url and credentials of the database
+     * @return pooled ConnectionFactory
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(R2dbcProperties properties, R2dbcConnectionDetails connectionDetails) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(connectionDetails.getConnectionFactoryOptions());
+        R2dbcProperties.Pool pool = properties.getPool();
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory);
+        map.from(pool.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(pool.getMaxValidationTime()).to(builder::maxValidationTime);
+        map.from(pool.getInitialSize()).to(builder::initialSize);
+        map.from(pool.getMaxSize()).to(builder::maxSize);
+        map.from(pool.getMinIdle()).to(builder::minIdle);
+        map.from(pool.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        map.from(pool.getValidationDepth()).to(builder::validationDepth);
+        builder.customizer(poolBuilder -> poolBuilder.acquisitionScheduler(Schedulers.boundedElastic()));
+        return new ConnectionPool(builder.build());
+    }
+
+    /**
+     * Transaction manager which does not pass read only attribute to the connection. H2 supports read only only
+     * for the whole session, r2dbc-h2 ignores the attribute and logs warning on every transaction it is set on,
+     * Spring sets it on every transaction, read only or not.
+     *
+     * @param connectionFactory pooled ConnectionFactory
+     * @return ReactiveTransactionManager
+     */
+    @Bean
+    public ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new R2dbcTransactionManager(connectionFactory) {
+            @Override
+            protected TransactionDefinition createTransactionDefinition(
+                    org.springframework.transaction.TransactionDefinition definition) {
+                TransactionDefinition transactionDefinition = super.createTransactionDefinition(definition);
+                return new TransactionDefinition() {
+                    @Override
+                    public <T> T getAttribute(Option<T> option) {
+                        return TransactionDefinition.READ_ONLY.equals(option)
+                                ? null : transactionDefinition.getAttribute(option);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Allocator of Question ids from QUESTION_SEQ
+     *
+     * @param databaseClient  client used to read the sequence
+     * @param forumProperties holds allocation size of the sequence
+     * @return PooledLoIdAllocator
+     */
+    @Bean
+    public PooledLoIdAllocator questionIdAllocator(DatabaseClient databaseClient, ForumProperties forumProperties) {
+        return new PooledLoIdAllocator(databaseClient, "QUESTION_SEQ", forumProperties.getId().getAllocationSize());
+    }
+
+    /**
+     * Allocator of Reply ids from REPLY_SEQ
+     *
+     * @param databaseClient  client used to read the sequence
+     * @param forumProperties holds allocation size of the sequence
+     * @return PooledLoIdAllocator
+     */
+    @Bean
+    public PooledLoIdAllocator replyIdAllocator(DatabaseClient databaseClient, ForumProperties forumProperties) {
+        return new PooledLoIdAllocator(databaseClient, "REPLY_SEQ", forumProperties.getId().getAllocationSize());
+    }
+
+    /**
+     * Fail startup when allocation size differs from INCREMENT BY of the sequences, which V2 migration sets only once.
+     * Runs after Flyway migrated the database.
+     *
+     * @param allocators id allocators of all sequences
+     * @return ApplicationRunner checking the sequences
+     */
+    @Bean
+    public ApplicationRunner idAllocationSizeCheck(List<PooledLoIdAllocator> allocators) {
+        return args -> Flux.fromIterable(allocators)
+                .concatMap(PooledLoIdAllocator::checkIncrement)
+                .blockLast();
+    }
+
+    /**
+     * Assign id of new Question from QUESTION_SEQ before it is inserted
+     *
+     * @param allocator allocator of Question ids
+     * @return callback of Question insert
+     */
+    @Bean
+    public BeforeConvertCallback<Question> questionIdCallback(@Qualifier("questionIdAllocator") PooledLoIdAllocator allocator) {
+        return (question, table) -> {
+            if (question.getId() != null) {
+                return Mono.just(question);
+            }
+            return allocator.nextId().map(id -> {
+                question.setId(id);
+                return question;
+            });
+        };
+    }
+
+    /**
+     * Assign id of new Reply from REPLY_SEQ before it is inserted
+     *
+     * @param allocator allocator of Reply ids
+     * @return callback of Reply insert
+     */
+    @Bean
+    public BeforeConvertCallback<Reply> replyIdCallback(@Qualifier("replyIdAllocator") PooledLoIdAllocator allocator) {
+        return (reply, table) -> {
+            if (reply.getId() != null) {
+                return Mono.just(reply);
+            }
+            return allocator.nextId().map(id -> {
+                reply.setId(id);
+                return reply;
+            });
+        };
+    }
+}
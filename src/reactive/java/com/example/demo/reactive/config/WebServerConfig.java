@@ -0,0 +1,22 @@
+package com.example.demo.reactive.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Web server configuration, Tomcat of the servlet application is on classpath too and would be preferred otherwise
+ */
+@Configuration
+public class WebServerConfig {
+
+    /**
+     * Serve requests on Reactor Netty event loops
+     *
+     * @return Netty web server factory, customized from server.* properties
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
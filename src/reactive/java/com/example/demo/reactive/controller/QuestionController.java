@@ -0,0 +1,92 @@
+package com.example.demo.reactive.controller;
+
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.reactive.service.QuestionService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import jakarta.validation.Valid;
+
+/**
+ * WebFlux rest controller exposing Question resource at /questions, mirrors JPA application QuestionController
+ */
+@RestController
+public class QuestionController {
+
+    private final QuestionService questionService;
+
+    public QuestionController(QuestionService questionService) {
+        this.questionService = questionService;
+    }
+
+    /**
+     * Http POST request, allows to create new Question.
+     *
+     * @param questionDTO require author and message.
+     * @return QuestionDTO with database ID.
+     */
+    @PostMapping("/questions")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<QuestionDTO> createQuestion(@RequestBody @Valid QuestionDTO questionDTO) {
+        return questionService.createQuestion(questionDTO);
+    }
+
+    /**
+     * Http POST request, allows to create new Replay for given Question.
+     *
+     * @param replyDTO   require author and message.
+     * @param questionId id of Question
+     * @return ReplayDTO with related database ID and Question ID.
+     */
+    @PostMapping("/questions/{questionId}/reply")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ReplyDTO> createReply(@RequestBody @Valid ReplyDTO replyDTO, @PathVariable("questionId") Long questionId) {
+        return questionService.createReply(replyDTO, questionId);
+    }
+
+    /**
+     * Http GET request, as a path parameter takes Question Id and returns Question with single page of related Replies.
+     * Replies are written to response as they are read.
+     *
+     * @param questionId id of Question.
+     * @param after      cursor returned with previous replies page, first page is returned when missing
+     * @param limit      maximum number of replies on page, default is used when missing
+     * @param response   current response, provides buffers
+     * @return JSON of Question and page of related Replies.
+     */
+    @GetMapping(value = "/questions/{questionId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataBuffer> getThread(@PathVariable("questionId") Long questionId,
+                                      @RequestParam(value = "after", required = false) String after,
+                                      @RequestParam(value = "limit", required = false) Integer limit,
+                                      ServerHttpResponse response) {
+        return questionService.getThread(questionId, after, limit, response.bufferFactory());
+    }
+
+    /**
+     * Http GET request, returns single page of existing questions ordered by id.
+     * Questions are written to response as they are read.
+     *
+     * @param after    cursor returned with previous page, first page is returned when missing
+     * @param limit    maximum number of questions on page, default is used when missing
+     * @param response current response, provides buffers
+     * @return JSON of page of Questions with cursor to the next page
+     */
+    @GetMapping(value = "/questions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataBuffer> getAllQuestions(@RequestParam(value = "after", required = false) String after,
+                                            @RequestParam(value = "limit", required = false) Integer limit,
+                                            ServerHttpResponse response) {
+        return questionService.getAllQuestions(after, limit, response.bufferFactory());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Question class, represents a row of QUESTIONS table read over R2DBC.
+ * Id is assigned from QUESTION_SEQ before insert, see {@link com.example.demo.reactive.config.R2dbcConfig}.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("QUESTIONS")
+public class Question {
+
+    @Id
+    private Long id;
+
+    private String author;
+
+    private String message;
+
+    /**
+     * Denormalized number of replies, maintained with atomic update on reply creation
+     */
+    private long replyCount;
+}
@@ -0,0 +1,31 @@
+package com.example.demo.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Reply class, represents a row of REPLIES table read over R2DBC.
+ * Id is assigned from REPLY_SEQ before insert, see {@link com.example.demo.reactive.config.R2dbcConfig}.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("REPLIES")
+public class Reply {
+
+    @Id
+    private Long id;
+
+    private String author;
+
+    private String message;
+
+    private Long questionId;
+}
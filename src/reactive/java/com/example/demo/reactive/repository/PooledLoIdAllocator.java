@@ -0,0 +1,78 @@
+package com.example.demo.reactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Allocates ids from database sequence with the same pooled-lo scheme as JPA PooledLoSequenceGenerator,
+ * each sequence value is the lowest id of a block of allocation size ids. Database is reached once per block,
+ * so both stacks can insert into the same tables without id collisions.
+ */
+public class PooledLoIdAllocator {
+
+    private final DatabaseClient databaseClient;
+    private final String sequence;
+    private final String nextValueSql;
+    private final int allocationSize;
+
+    private long next;
+    private long limit;
+
+    /**
+     * @param databaseClient client used to read the sequence
+     * @param sequence       name of sequence with INCREMENT BY equal to allocation size
+     * @param allocationSize number of ids in single block
+     */
+    public PooledLoIdAllocator(DatabaseClient databaseClient, String sequence, int allocationSize) {
+        this.databaseClient = databaseClient;
+        this.sequence = sequence;
+        this.nextValueSql = "select next value for " + sequence;
+        this.allocationSize = allocationSize;
+    }
+
+    /**
+     * Check that INCREMENT BY of the sequence equals allocation size, otherwise blocks would overlap or leave gaps
+     *
+     * @return empty Mono, or error with IllegalStateException when increment differs
+     */
+    public Mono<Void> checkIncrement() {
+        return databaseClient.sql("select cast(increment as bigint) from information_schema.sequences where sequence_name = :name")
+                .bind("name", sequence)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Sequence " + sequence + " does not exist")))
+                .flatMap(increment -> increment == allocationSize ? Mono.<Void>empty() : Mono.error(new IllegalStateException(
+                        String.format("Increment of sequence %s is %d while id allocation size is %d",
+                                sequence, increment, allocationSize))));
+    }
+
+    /**
+     * Allocate next id, from the current block when it has ids left, otherwise from a new block
+     *
+     * @return id
+     */
+    public Mono<Long> nextId() {
+        synchronized (this) {
+            if (next < limit) {
+                return Mono.just(next++);
+            }
+        }
+        return databaseClient.sql(nextValueSql)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(this::allocate);
+    }
+
+    /**
+     * Make block starting with given id current and take its first id.
+     * When blocks are read concurrently, the block read last becomes current and rest of the others is skipped.
+     *
+     * @param low first id of block
+     * @return first id of block
+     */
+    private synchronized long allocate(long low) {
+        next = low + 1;
+        limit = low + allocationSize;
+        return low;
+    }
+}
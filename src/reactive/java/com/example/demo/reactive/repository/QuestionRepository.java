@@ -0,0 +1,47 @@
+package com.example.demo.reactive.repository;
+
+import com.example.demo.reactive.entity.Question;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Question reactive repository interface, provides non-blocking CRUD methods on QUESTIONS table.
+ */
+public interface QuestionRepository extends ReactiveCrudRepository<Question, Long> {
+
+    /**
+     * Keyset (seek) page of questions ordered by id, rows are emitted as they are read
+     *
+     * @param after id after which page starts
+     * @param limit maximum number of rows
+     * @return questions with id greater than given one
+     */
+    @Query("select * from questions where id > :after order by id limit :limit")
+    Flux<Question> findQuestionPage(@Param("after") long after, @Param("limit") int limit);
+
+    /**
+     * Atomically change reply count of question, used instead of counting replies on read
+     *
+     * @param questionId id of question
+     * @param delta      number added to reply count
+     * @return number of updated rows, 0 when question does not exist
+     */
+    @Modifying
+    @Query("update questions set reply_count = reply_count + :delta where id = :questionId")
+    Mono<Integer> incrementReplyCount(@Param("questionId") Long questionId, @Param("delta") long delta);
+
+    /**
+     * Drop materialized view of thread maintained by the default application, replies inserted here are not appended
+     * to it, so the view is rebuilt by the default application on the next reply
+     *
+     * @param questionId id of question
+     * @return number of deleted rows, 0 when thread has no view
+     */
+    @Modifying
+    @Query("delete from thread_views where question_id = :questionId")
+    Mono<Integer> deleteThreadView(@Param("questionId") Long questionId);
+}
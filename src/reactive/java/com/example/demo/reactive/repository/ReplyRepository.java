@@ -0,0 +1,25 @@
+package com.example.demo.reactive.repository;
+
+import com.example.demo.reactive.entity.Reply;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reply reactive repository interface, provides non-blocking CRUD methods on REPLIES table.
+ */
+public interface ReplyRepository extends ReactiveCrudRepository<Reply, Long> {
+
+    /**
+     * Keyset (seek) page of replies of given question ordered by id, served by (question_id, id) index range scan.
+     * Rows are emitted as they are read.
+     *
+     * @param questionId id of question
+     * @param after      id after which page starts
+     * @param limit      maximum number of rows
+     * @return replies with id greater than given one
+     */
+    @Query("select * from replies where question_id = :questionId and id > :after order by id limit :limit")
+    Flux<Reply> findReplyPage(@Param("questionId") Long questionId, @Param("after") long after, @Param("limit") int limit);
+}
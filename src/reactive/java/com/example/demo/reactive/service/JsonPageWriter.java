@@ -0,0 +1,167 @@
+package com.example.demo.reactive.service;
+
+import com.example.demo.service.PageCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * JsonPageWriter class, renders keyset page as JSON object emitted incrementally, one buffer per page item,
+ * so only the item being written is held in memory. Output has the same shape as page DTO serialized by Jackson:
+ * head fields, array of items, tail fields and "nextCursor".
+ */
+@Component
+public class JsonPageWriter {
+
+    private static final String NEXT_CURSOR = "nextCursor";
+
+    private final ObjectMapper objectMapper;
+
+    public JsonPageWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Render page as streamed JSON object. Items are expected to hold one element past page size,
+     * the extra element is not written and only tells that next page exists.
+     *
+     * @param bufferFactory factory of response buffers
+     * @param head          fields written before items, in iteration order
+     * @param itemsField    name of array field holding items
+     * @param items         page items followed by first item of next page, if any
+     * @param pageSize      number of written items
+     * @param idOf          id of item, last written id is encoded into next page cursor
+     * @param tail          fields written after items, in iteration order
+     * @param <T>           type of item
+     * @return JSON object as stream of buffers
+     */
+    public <T> Flux<DataBuffer> write(DataBufferFactory bufferFactory, Map<String, ?> head, String itemsField,
+                                      Flux<T> items, int pageSize, Function<T, Long> idOf, Map<String, ?> tail) {
+        return Flux.using(
+                () -> new PageGenerator<>(objectMapper, pageSize, idOf),
+                page -> Flux.concat(
+                        Mono.fromCallable(() -> page.start(head, itemsField)),
+                        items.<byte[]>handle((item, sink) -> {
+                            byte[] chunk = page.item(item);
+                            if (chunk != null) {
+                                sink.next(chunk);
+                            }
+                        }),
+                        Mono.fromCallable(() -> page.end(tail))),
+                PageGenerator::close)
+                .map(bufferFactory::wrap);
+    }
+
+    /**
+     * Generator state of single response, output written since previous chunk is taken after each step
+     *
+     * @param <T> type of item
+     */
+    private static final class PageGenerator<T> {
+
+        private final ByteArrayBuilder out = new ByteArrayBuilder();
+        private final JsonGenerator generator;
+        private final int pageSize;
+        private final Function<T, Long> idOf;
+
+        private int written;
+        private Long lastId;
+        private boolean hasNext;
+
+        private PageGenerator(ObjectMapper objectMapper, int pageSize, Function<T, Long> idOf) throws IOException {
+            this.generator = objectMapper.createGenerator(out);
+            this.pageSize = pageSize;
+            this.idOf = idOf;
+        }
+
+        /**
+         * Write head fields and start of items array
+         *
+         * @param head       fields written before items
+         * @param itemsField name of array field holding items
+         * @return written JSON
+         */
+        private byte[] start(Map<String, ?> head, String itemsField) throws IOException {
+            generator.writeStartObject();
+            for (Map.Entry<String, ?> field : head.entrySet()) {
+                generator.writeObjectField(field.getKey(), field.getValue());
+            }
+            generator.writeArrayFieldStart(itemsField);
+            return chunk();
+        }
+
+        /**
+         * Write single item, item past page size is only noted
+         *
+         * @param item page item
+         * @return written JSON, null when item is past page size
+         */
+        private byte[] item(T item) {
+            if (written == pageSize) {
+                hasNext = true;
+                return null;
+            }
+            try {
+                generator.writeObject(item);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            written++;
+            lastId = idOf.apply(item);
+            return chunk();
+        }
+
+        /**
+         * Write end of items array, tail fields and cursor of next page, null on last page
+         *
+         * @param tail fields written after items
+         * @return written JSON
+         */
+        private byte[] end(Map<String, ?> tail) throws IOException {
+            generator.writeEndArray();
+            for (Map.Entry<String, ?> field : tail.entrySet()) {
+                generator.writeObjectField(field.getKey(), field.getValue());
+            }
+            generator.writeObjectField(NEXT_CURSOR, hasNext ? PageCursor.encode(lastId) : null);
+            generator.writeEndObject();
+            return chunk();
+        }
+
+        /**
+         * Take output written since previous chunk
+         *
+         * @return written JSON
+         */
+        private byte[] chunk() {
+            try {
+                generator.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            byte[] chunk = out.toByteArray();
+            out.reset();
+            return chunk;
+        }
+
+        /**
+         * Release generator buffers, output of cancelled response is discarded
+         */
+        private void close() {
+            try {
+                generator.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
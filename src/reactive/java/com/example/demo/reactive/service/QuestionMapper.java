@@ -0,0 +1,87 @@
+package com.example.demo.reactive.service;
+
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.dto.ThreadReplyDTO;
+import com.example.demo.reactive.entity.Question;
+import com.example.demo.reactive.entity.Reply;
+import org.springframework.stereotype.Component;
+
+/**
+ * QuestionMapper class, map R2DBC entities and DTOs in both directions.
+ */
+@Component
+public class QuestionMapper {
+
+    /**
+     * Map Question entity object to QuestionDTO
+     *
+     * @param question is an entity object
+     * @return QuestionDTO
+     */
+    QuestionDTO questionToQuestionDTO(Question question) {
+        return QuestionDTO.builder()
+                .id(question.getId())
+                .author(question.getAuthor())
+                .message(question.getMessage())
+                .replies(question.getReplyCount())
+                .build();
+    }
+
+    /**
+     * Map QuestionDTO to Question entity object
+     *
+     * @param questionDTO transfer object
+     * @return Question entity object
+     */
+    Question questionDTOToQuestion(QuestionDTO questionDTO) {
+        return Question.builder()
+                .author(questionDTO.getAuthor())
+                .message(questionDTO.getMessage())
+                .build();
+    }
+
+    /**
+     * Map single reply entity to ThreadRepliesDTO
+     *
+     * @param reply entity object
+     * @return ThreadReplyDTO, hold reply without relation to question
+     */
+    ThreadReplyDTO replyToThreadReplyDTO(Reply reply) {
+        return ThreadReplyDTO.builder()
+                .id(reply.getId())
+                .author(reply.getAuthor())
+                .message(reply.getMessage())
+                .build();
+    }
+
+    /**
+     * Map Reply entity to ReplyDTO
+     *
+     * @param reply entity object
+     * @return ReplyDTO
+     */
+    ReplyDTO replyToReplyDTO(Reply reply) {
+        return ReplyDTO.builder()
+                .id(reply.getId())
+                .questionId(reply.getQuestionId())
+                .author(reply.getAuthor())
+                .message(reply.getMessage())
+                .build();
+    }
+
+    /**
+     * Map ReplyDTO to Reply entity of given question
+     *
+     * @param replyDTO   transfer object
+     * @param questionId id of related question
+     * @return Reply entity object
+     */
+    Reply replyDTOToReply(ReplyDTO replyDTO, Long questionId) {
+        return Reply.builder()
+                .author(replyDTO.getAuthor())
+                .message(replyDTO.getMessage())
+                .questionId(questionId)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.reactive.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.dto.ThreadReplyDTO;
+import com.example.demo.exception.QuestionNotFoundException;
+import com.example.demo.reactive.entity.Question;
+import com.example.demo.reactive.repository.QuestionRepository;
+import com.example.demo.reactive.repository.ReplyRepository;
+import com.example.demo.service.PageCursor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reactive question service class, encapsulate non-blocking operations on Questions and Replies.
+ * Thread and question pages are rendered to JSON while rows are read, page is never collected in memory.
+ */
+@Service
+public class QuestionService {
+
+    private final QuestionRepository questionRepository;
+    private final ReplyRepository replyRepository;
+    private final QuestionMapper questionMapper;
+    private final JsonPageWriter jsonPageWriter;
+    private final ForumProperties forumProperties;
+
+    public QuestionService(QuestionRepository questionRepository, ReplyRepository replyRepository, QuestionMapper questionMapper,
+                           JsonPageWriter jsonPageWriter, ForumProperties forumProperties) {
+        this.questionRepository = questionRepository;
+        this.replyRepository = replyRepository;
+        this.questionMapper = questionMapper;
+        this.jsonPageWriter = jsonPageWriter;
+        this.forumProperties = forumProperties;
+    }
+
+    /**
+     * Method renders single page of existing Questions ordered by id, in the shape of QuestionPageDTO.
+     * Page is read with keyset (seek) query, so cost does not depend on how deep the page is.
+     *
+     * @param after         cursor of previous page, null for the first page
+     * @param limit         requested page size, null for default, capped to configured maximum
+     * @param bufferFactory factory of response buffers
+     * @return JSON of Questions and cursor of next page, cursor is null on last page
+     */
+    public Flux<DataBuffer> getAllQuestions(String after, Integer limit, DataBufferFactory bufferFactory) {
+        long afterId = PageCursor.decode(after);
+        int pageSize = forumProperties.getPagination().pageSize(limit);
+        Flux<QuestionDTO> questions = questionRepository.findQuestionPage(afterId, pageSize + 1)
+                .map(questionMapper::questionToQuestionDTO);
+        return jsonPageWriter.write(bufferFactory, Collections.emptyMap(), "questions", questions, pageSize,
+                QuestionDTO::getId, Collections.emptyMap());
+    }
+
+    /**
+     * Method create a new Question in repository
+     *
+     * @param questionDTO transfer object
+     * @return QuestionDTO
+     */
+    public Mono<QuestionDTO> createQuestion(QuestionDTO questionDTO) {
+        return questionRepository.save(questionMapper.questionDTOToQuestion(questionDTO))
+                .map(questionMapper::questionToQuestionDTO);
+    }
+
+    /**
+     * Method create a new Replay to given question and increments question reply count in the same transaction.
+     * Increment doubles as existence check, when no question row is updated {@link QuestionNotFoundException}
+     * is signalled and nothing is inserted. Thread view of the default application is dropped in the same transaction,
+     * so it never serves first page without the reply.
+     *
+     * @param replyDTO   transfer object
+     * @param questionId id of related question
+     * @return ReplyDTO
+     */
+    @Transactional
+    public Mono<ReplyDTO> createReply(ReplyDTO replyDTO, Long questionId) {
+        return questionRepository.incrementReplyCount(questionId, 1L)
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new QuestionNotFoundException(questionId))
+                        : replyRepository.save(questionMapper.replyDTOToReply(replyDTO, questionId)))
+                .flatMap(reply -> questionRepository.deleteThreadView(questionId).thenReturn(reply))
+                .map(questionMapper::replyToReplyDTO);
+    }
+
+    /**
+     * Method renders Question with single page of related Replies in the shape of ThreadDTO.
+     * Replies page is read with keyset (seek) query and written as rows arrive,
+     * total number of replies comes from denormalized reply count.
+     * When Question does not exist {@link QuestionNotFoundException} is signalled before anything is written.
+     *
+     * @param questionId    id of question
+     * @param after         cursor of previous replies page, null for the first page
+     * @param limit         requested page size, null for default, capped to configured maximum
+     * @param bufferFactory factory of response buffers
+     * @return JSON of Question with page of related Replies
+     */
+    public Flux<DataBuffer> getThread(Long questionId, String after, Integer limit, DataBufferFactory bufferFactory) {
+        long afterId = PageCursor.decode(after);
+        int pageSize = forumProperties.getPagination().pageSize(limit);
+        return questionRepository.findById(questionId)
+                .switchIfEmpty(Mono.error(() -> new QuestionNotFoundException(questionId)))
+                .flatMapMany(question -> {
+                    Flux<ThreadReplyDTO> replies = replyRepository.findReplyPage(questionId, afterId, pageSize + 1)
+                            .map(questionMapper::replyToThreadReplyDTO);
+                    return jsonPageWriter.write(bufferFactory, threadHead(question), "replies", replies, pageSize,
+                            ThreadReplyDTO::getId, Collections.singletonMap("totalReplies", question.getReplyCount()));
+                });
+    }
+
+    /**
+     * Fields of thread written before replies, in ThreadDTO order
+     *
+     * @param question entity object
+     * @return field values by name
+     */
+    private Map<String, Object> threadHead(Question question) {
+        Map<String, Object> head = new LinkedHashMap<>();
+        head.put("id", question.getId());
+        head.put("author", question.getAuthor());
+        head.put("message", question.getMessage());
+        return head;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Starts application with production profile, Hibernate validates entities against schema created by Flyway migrations.
+ */
+// own database, so schema is not shared with contexts of other tests where Hibernate updates it
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:prod", "forum.reconciliation.enabled=false"})
+@ActiveProfiles("prod")
+class ProdProfileTests {
+
+    @Test
+    void contextLoadsWithSchemaFromMigrations() {
+    }
+
+}
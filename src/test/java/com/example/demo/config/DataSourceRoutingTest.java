@@ -0,0 +1,101 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.entity.Question;
+import com.example.demo.repository.QuestionRepository;
+import com.example.demo.service.QuestionService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests of data source routing, runs with full Spring context against embedded database.
+ */
+@SpringBootTest(properties = {"forum.reconciliation.enabled=false", "forum.search.rebuild-on-startup=false"})
+class DataSourceRoutingTest {
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("readDataSource")
+    private HikariDataSource readDataSource;
+
+    /**
+     * When context is started then read pool should be running without any connection borrowed from it before.
+     */
+    @Test
+    void shouldStartReadPoolWithContext() {
+        assertNotNull(readDataSource.getHikariPoolMXBean());
+        assertTrue(readDataSource.getHikariPoolMXBean().getTotalConnections() > 0);
+    }
+
+    /**
+     * When read-only transaction runs a query then connection should be borrowed from read pool.
+     */
+    @Test
+    void shouldServeReadOnlyTransactionFromReadPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> {
+            questionRepository.count();
+            assertEquals(1, readDataSource.getHikariPoolMXBean().getActiveConnections());
+            assertEquals(0, primaryDataSource.getHikariPoolMXBean().getActiveConnections());
+        });
+    }
+
+    /**
+     * When read-write transaction runs a query then connection should be borrowed from primary pool.
+     */
+    @Test
+    void shouldServeReadWriteTransactionFromPrimaryPool() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            questionRepository.count();
+            assertEquals(1, primaryDataSource.getHikariPoolMXBean().getActiveConnections());
+            assertEquals(0, readDataSource.getHikariPoolMXBean().getActiveConnections());
+        });
+    }
+
+    /**
+     * When entity is loaded in read-only transaction then it should be read-only and session should not flush.
+     */
+    @Test
+    void shouldSkipDirtyCheckingInReadOnlyTransaction() {
+        Long questionId = questionService.createQuestion(QuestionDTO.builder().author("author").message("message").build()).getId();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            assertTrue(session.isDefaultReadOnly());
+            assertEquals(FlushMode.MANUAL, session.getHibernateFlushMode());
+            Question question = questionRepository.findById(questionId).orElseThrow();
+            assertTrue(session.isReadOnly(question));
+        });
+    }
+}
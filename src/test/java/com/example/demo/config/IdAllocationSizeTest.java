@@ -0,0 +1,45 @@
+package com.example.demo.config;
+
+import com.example.demo.ForumApplication;
+import org.hibernate.MappingException;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Integration tests of id allocation size, starts application twice against the same embedded database.
+ */
+class IdAllocationSizeTest {
+
+    private static final String[] ARGS = {
+            "--spring.datasource.url=jdbc:h2:mem:idallocation;DB_CLOSE_DELAY=-1",
+            "--forum.reconciliation.enabled=false",
+            "--forum.search.rebuild-on-startup=false"};
+
+    /**
+     * When allocation size is changed after sequences were created by migration then application should not start.
+     */
+    @Test
+    void shouldFailStartup_whenAllocationSizeDiffersFromSequenceIncrement() {
+        try (ConfigurableApplicationContext context = application().run(ARGS)) {
+            context.getBean(ForumApplication.class);
+        }
+
+        String[] changed = Arrays.copyOf(ARGS, ARGS.length + 1);
+        changed[ARGS.length] = "--forum.id.allocation-size=10";
+        Exception ex = assertThrows(Exception.class, () -> application().run(changed).close());
+
+        assertInstanceOf(MappingException.class, NestedExceptionUtils.getMostSpecificCause(ex));
+    }
+
+    private static SpringApplicationBuilder application() {
+        return new SpringApplicationBuilder(ForumApplication.class).web(WebApplicationType.NONE);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.service.QuestionService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests of request metrics, runs with full Spring context against embedded database.
+ */
+@SpringBootTest(properties = {"forum.reconciliation.enabled=false", "forum.search.rebuild-on-startup=false"})
+@AutoConfigureMockMvc
+class SqlStatementMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * When first thread page is read then single statement, thread view lookup, should be recorded for thread uri.
+     */
+    @Test
+    void shouldRecordSqlStatementsOfRequest() throws Exception {
+        Long questionId = questionService.createQuestion(QuestionDTO.builder().author("author").message("message").build()).getId();
+        for (int i = 0; i < 3; i++) {
+            questionService.createReply(ReplyDTO.builder().author("author").message("reply").build(), questionId);
+        }
+
+        mockMvc.perform(get("/questions/{questionId}", questionId).param("limit", "2"))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.find(SqlStatementMetricsInterceptor.METRIC_NAME)
+                .tags("method", "GET", "uri", "/questions/{questionId}")
+                .summary();
+        assertNotNull(statements);
+        assertEquals(1, statements.count());
+        assertEquals(1.0, statements.totalAmount());
+    }
+
+    /**
+     * When service method is called then its timer should be recorded.
+     */
+    @Test
+    void shouldTimeServiceMethods() {
+        questionService.getAllQuestions(null, null);
+
+        assertNotNull(meterRegistry.find(QuestionService.SERVICE_TIMER)
+                .tags("class", QuestionService.class.getName(), "method", "getAllQuestions")
+                .timer());
+    }
+
+    /**
+     * When reply is posted then question should not be loaded, reply count update, reply insert and thread view append
+     * are the only statements.
+     */
+    @Test
+    void shouldCreateReplyWithoutLoadingQuestion() throws Exception {
+        Long questionId = questionService.createQuestion(QuestionDTO.builder().author("author").message("message").build()).getId();
+        // first reply allocates block of reply ids from sequence
+        questionService.createReply(ReplyDTO.builder().author("author").message("reply").build(), questionId);
+
+        mockMvc.perform(post("/questions/{questionId}/reply", questionId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"author\":\"author\",\"message\":\"reply\"}"))
+                .andExpect(status().isCreated());
+
+        DistributionSummary statements = meterRegistry.find(SqlStatementMetricsInterceptor.METRIC_NAME)
+                .tags("method", "POST", "uri", "/questions/{questionId}/reply")
+                .summary();
+        assertNotNull(statements);
+        assertEquals(3.0, statements.totalAmount());
+    }
+}
@@ -1,29 +1,55 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BulkItemResultDTO;
+import com.example.demo.dto.BulkResultDTO;
 import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.QuestionPageDTO;
 import com.example.demo.dto.ReplyDTO;
+import com.example.demo.dto.SearchHitDTO;
+import com.example.demo.dto.SearchResultDTO;
 import com.example.demo.dto.ThreadDTO;
 import com.example.demo.dto.ThreadReplyDTO;
+import com.example.demo.exception.BulkLimitExceededException;
+import com.example.demo.exception.InvalidCursorException;
 import com.example.demo.exception.QuestionNotFoundException;
+import com.example.demo.exception.WriteQueueFullException;
+import com.example.demo.service.QuestionBulkService;
+import com.example.demo.service.QuestionExportService;
+import com.example.demo.service.QuestionSearchService;
 import com.example.demo.service.QuestionService;
+import com.example.demo.service.RenderedThread;
+import com.example.demo.service.ReplyWriteBehind;
+import com.example.demo.service.ThreadCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -38,6 +64,21 @@ class QuestionControllerTest {
     @MockBean
     private QuestionService questionService;
 
+    @MockBean
+    private QuestionExportService questionExportService;
+
+    @MockBean
+    private QuestionBulkService questionBulkService;
+
+    @MockBean
+    private QuestionSearchService questionSearchService;
+
+    @MockBean
+    private ReplyWriteBehind replyWriteBehind;
+
+    @MockBean
+    private ThreadCache threadCache;
+
     /**
      * Helper method convert Object into json string
      *
@@ -54,34 +95,70 @@ class QuestionControllerTest {
 
     /**
      * test for GET /guestions
-     * When there is no Questions in repository then endpoint should return empty array and 200 OK HTTP status
+     * When there is no Questions in repository then endpoint should return empty page and 200 OK HTTP status
      *
      * @throws Exception
      */
     @Test
-    void shouldReturn200OkAndEmptyArrayOfQuestions_whenNoQuestionHasBeenCreated() throws Exception {
+    void shouldReturn200OkAndEmptyPageOfQuestions_whenNoQuestionHasBeenCreated() throws Exception {
+        QuestionPageDTO expected = QuestionPageDTO.builder().questions(Collections.emptyList()).build();
+
+        when(questionService.getAllQuestions(null, null)).thenReturn(expected);
+
         mockMvc.perform(get("/questions"))
                 .andExpect(status().isOk())
-                .andExpect(content().string(asJsonString(Collections.EMPTY_LIST)));
+                .andExpect(content().json(asJsonString(expected)));
     }
 
     /**
      * test for GET /guestions
-     * When there are Questions in repository then endpoint should return list of QuestionDTO and 200 OK HTTP status
+     * When there are Questions in repository then endpoint should return page of QuestionDTO and 200 OK HTTP status
      *
      * @throws Exception
      */
     @Test
-    void shouldReturn200OkAndListOfQuestions_whenQuestionsExist() throws Exception {
+    void shouldReturn200OkAndPageOfQuestions_whenQuestionsExist() throws Exception {
         QuestionDTO question1 = QuestionDTO.builder().id(1L).replies(0L).author("author").message("message").build();
-        QuestionDTO question2 = QuestionDTO.builder().id(1L).replies(0L).author("author").message("message").build();
+        QuestionDTO question2 = QuestionDTO.builder().id(2L).replies(0L).author("author").message("message").build();
         List<QuestionDTO> questionDTOs = Arrays.asList(question1, question2);
+        QuestionPageDTO expected = QuestionPageDTO.builder().questions(questionDTOs).nextCursor("Mg").build();
 
-        when(questionService.getAllQuestions()).thenReturn(questionDTOs);
+        when(questionService.getAllQuestions(null, null)).thenReturn(expected);
 
         mockMvc.perform(get("/questions"))
                 .andExpect(status().isOk())
-                .andExpect(content().json(asJsonString(questionDTOs)));
+                .andExpect(content().json(asJsonString(expected)));
+    }
+
+    /**
+     * test for GET /guestions?after={cursor}&limit={limit}
+     * Cursor and limit should be passed to service as they are
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldPassCursorAndLimitToService_whenRequestingNextPage() throws Exception {
+        QuestionPageDTO expected = QuestionPageDTO.builder().questions(Collections.emptyList()).build();
+
+        when(questionService.getAllQuestions(eq("Mg"), eq(10))).thenReturn(expected);
+
+        mockMvc.perform(get("/questions").param("after", "Mg").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(asJsonString(expected)));
+    }
+
+    /**
+     * test for GET /guestions?after={cursor}
+     * When cursor is malformed then endpoint should return 400 BAD_REQUEST status
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturn400ResponseCode_whenCursorIsInvalid() throws Exception {
+        when(questionService.getAllQuestions(eq("invalid"), isNull())).thenThrow(new InvalidCursorException("invalid"));
+
+        mockMvc.perform(get("/questions").param("after", "invalid"))
+                .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
     }
 
     /**
@@ -187,7 +264,7 @@ class QuestionControllerTest {
      */
     @Test
     void shouldReturn404ResponseCode_whenThreadDoesntExist1() throws Exception {
-        when(questionService.getThread(1L)).thenThrow(new QuestionNotFoundException(1L));
+        when(questionService.getRenderedThread(1L)).thenThrow(new QuestionNotFoundException(1L));
 
         mockMvc.perform(
                 get("/questions/1"))
@@ -204,15 +281,297 @@ class QuestionControllerTest {
     void shouldReturn200ResponseCode_whenThreadForGivenIdExist() throws Exception {
         ThreadDTO expected = ThreadDTO.builder().author("author").message("question").id(1L).replies(
                 Collections.singletonList(ThreadReplyDTO.builder().author("author1").message("answer").id(2L).build())
-        ).build();
+        ).totalReplies(1L).build();
 
-        when(questionService.getThread(1L)).thenReturn(expected);
+        when(questionService.getRenderedThread(1L)).thenReturn(new RenderedThread(expected, null, "\"1-1\""));
 
         mockMvc.perform(
                 get("/questions/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-1\""))
                 .andExpect(content().string(asJsonString(expected)));
     }
 
+    /**
+     * test for GET /questions/{questionId}
+     * When thread is rendered to JSON bytes then endpoint should write those bytes as response body.
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldWriteRenderedJsonBytes_whenThreadIsSerialized() throws Exception {
+        ThreadDTO thread = ThreadDTO.builder().author("author").message("question").id(1L)
+                .replies(Collections.emptyList()).totalReplies(0L).build();
+        byte[] json = asJsonString(thread).getBytes(StandardCharsets.UTF_8);
+
+        when(questionService.getRenderedThread(1L)).thenReturn(new RenderedThread(thread, json, "\"1-0\""));
+
+        mockMvc.perform(
+                get("/questions/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-0\""))
+                .andExpect(content().bytes(json));
+    }
+
+    /**
+     * test for GET /questions/{questionId}
+     * When If-None-Match header matches ETag of cached thread then endpoint should return 304 NOT_MODIFIED
+     * without calling service.
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturn304ResponseCodeWithoutCallingService_whenEtagMatchesCachedThread() throws Exception {
+        when(threadCache.etag(1L)).thenReturn("\"1-5\"");
+
+        mockMvc.perform(
+                get("/questions/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(questionService);
+    }
+
+    /**
+     * test for GET /questions/{questionId}
+     * When thread is not cached and If-None-Match header matches ETag of loaded thread then endpoint should
+     * return 304 NOT_MODIFIED.
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturn304ResponseCode_whenEtagMatchesLoadedThread() throws Exception {
+        ThreadDTO thread = ThreadDTO.builder().author("author").message("question").id(1L)
+                .replies(Collections.emptyList()).totalReplies(5L).build();
+        when(questionService.getRenderedThread(1L)).thenReturn(new RenderedThread(thread, null, "\"1-5\""));
+
+        mockMvc.perform(
+                get("/questions/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * test for GET /questions/{questionId}
+     * When reply changes thread after its cached ETag was checked then endpoint should return current thread
+     * with its own ETag only.
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturnEtagOfReturnedThread_whenThreadChangesAfterEtagCheck() throws Exception {
+        ThreadDTO thread = ThreadDTO.builder().author("author").message("question").id(1L)
+                .replies(Collections.emptyList()).totalReplies(6L).build();
+        when(threadCache.etag(1L)).thenReturn("\"1-5\"");
+        when(questionService.getRenderedThread(1L)).thenReturn(new RenderedThread(thread, null, "\"1-6\""));
+
+        mockMvc.perform(
+                get("/questions/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-4\""))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"1-6\""))
+                .andExpect(content().string(asJsonString(thread)));
+    }
+
+    /**
+     * test for GET /questions/{questionId}?after={cursor}&limit={limit}
+     * Replies cursor and limit should be passed to service as they are and page written by service returned as JSON
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldPassRepliesCursorAndLimitToService_whenRequestingNextRepliesPage() throws Exception {
+        ThreadDTO expected = ThreadDTO.builder().author("author").message("question").id(1L)
+                .replies(Collections.emptyList()).totalReplies(0L).build();
+        doAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write(asJsonString(expected).getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(questionService).writeThread(any(), eq(1L), eq("Mg"), eq(10));
+
+        mockMvc.perform(
+                get("/questions/1").param("after", "Mg").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(asJsonString(expected)));
+    }
+
+    /**
+     * test for GET /questions/{questionId}?after={cursor}&limit={limit}
+     * When question does not exist then 404 NOT_FOUND should be returned although page is written to response directly
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturnNotFound_whenRequestingRepliesPageOfMissingQuestion() throws Exception {
+        doThrow(new QuestionNotFoundException(1L)).when(questionService).writeThread(any(), eq(1L), isNull(), eq(10));
+
+        mockMvc.perform(get("/questions/1").param("limit", "10"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andExpect(content().string(new QuestionNotFoundException(1L).getMessage()));
+    }
+
+    /**
+     * test for GET /questions/{questionId}?after={cursor}
+     * When cursor is invalid then 400 BAD_REQUEST should be returned as plain text, not labelled as JSON page
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturnBadRequest_whenRequestingRepliesPageWithInvalidCursor() throws Exception {
+        doThrow(new InvalidCursorException("bad")).when(questionService).writeThread(any(), eq(1L), eq("bad"), isNull());
+
+        mockMvc.perform(get("/questions/1").param("after", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN));
+    }
+
+    /**
+     * test for GET /questions/export?replies={replies}
+     * Endpoint should stream body written by export service as newline delimited JSON with 200 OK status
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldStreamExportedQuestionsAsNdjson() throws Exception {
+        String lines = "{\"id\":1}\n{\"id\":2}\n";
+        doAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write(lines.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(questionExportService).exportQuestions(any(), eq(true));
+
+        MvcResult result = mockMvc.perform(get("/questions/export").param("replies", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(QuestionController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(lines));
+    }
+
+    /**
+     * test for POST /questions/bulk
+     * Endpoint should return 200 OK status and per item results returned by bulk service
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturn200ResponseCodeAndPerItemResults_whenQuestionsAreCreatedInBulk() throws Exception {
+        List<QuestionDTO> request = Arrays.asList(
+                QuestionDTO.builder().author("author").message("message").build(),
+                QuestionDTO.builder().author("author").build());
+        BulkResultDTO expected = BulkResultDTO.builder().created(1).failed(1).results(Arrays.asList(
+                BulkItemResultDTO.builder().index(0).status(201).id(1L).build(),
+                BulkItemResultDTO.builder().index(1).status(400).error("message must not be blank").build()
+        )).build();
+
+        when(questionBulkService.createQuestions(any())).thenReturn(expected);
+
+        mockMvc.perform(
+                post("/questions/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(asJsonString(expected)));
+    }
+
+    /**
+     * test for POST /questions/replies/bulk
+     * When bulk holds too many items then endpoint should return 413 PAYLOAD_TOO_LARGE status
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturn413ResponseCode_whenReplyBulkIsTooLarge() throws Exception {
+        List<ReplyDTO> request = Collections.singletonList(ReplyDTO.builder().questionId(1L).author("author").message("message").build());
+
+        when(questionBulkService.createReplies(any())).thenThrow(new BulkLimitExceededException(1, 0));
+
+        mockMvc.perform(
+                post("/questions/replies/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(status().is(HttpStatus.PAYLOAD_TOO_LARGE.value()));
+    }
+
+    /**
+     * test for GET /questions/search
+     * Endpoint should return 200 OK status and page of hits returned by search service
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturn200ResponseCodeAndHits_whenSearching() throws Exception {
+        SearchResultDTO expected = SearchResultDTO.builder()
+                .hits(Arrays.asList(
+                        SearchHitDTO.builder().questionId(1L).author("author").message("spring boot").score(1.5f).build(),
+                        SearchHitDTO.builder().questionId(1L).replyId(2L).author("author").message("boot").score(0.5f).build()))
+                .nextCursor("Mg")
+                .build();
+
+        when(questionSearchService.search(eq("boot"), isNull(), eq(2))).thenReturn(expected);
+
+        mockMvc.perform(get("/questions/search").param("q", "boot").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(asJsonString(expected)));
+    }
+
+    /**
+     * test for GET /questions/search
+     * When query is missing then endpoint should return 400 BAD_REQUEST status
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturn400ResponseCode_whenSearchQueryIsMissing() throws Exception {
+        mockMvc.perform(get("/questions/search"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(questionSearchService);
+    }
+
+    /**
+     * test for POST /questions/{questionId}/reply
+     * In write-behind mode endpoint should return 202 ACCEPTED status with reply holding allocated id
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturn202ResponseCode_whenReplyIsAcceptedForWriteBehind() throws Exception {
+        ReplyDTO request = ReplyDTO.builder().author("author").message("message").build();
+        ReplyDTO expected = ReplyDTO.builder().questionId(1L).id(5L).author("author").message("message").build();
+
+        when(replyWriteBehind.isEnabled()).thenReturn(true);
+        when(replyWriteBehind.submit(any(), eq(1L))).thenReturn(expected);
+
+        mockMvc.perform(
+                post("/questions/1/reply")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(content().string(asJsonString(expected)));
+        verifyNoInteractions(questionService);
+    }
+
+    /**
+     * test for POST /questions/{questionId}/reply
+     * When write-behind queue is full then endpoint should return 429 TOO_MANY_REQUESTS status with Retry-After header
+     *
+     * @throws Exception
+     */
+    @Test
+    void shouldReturn429ResponseCode_whenWriteBehindQueueIsFull() throws Exception {
+        ReplyDTO request = ReplyDTO.builder().author("author").message("message").build();
+
+        when(replyWriteBehind.isEnabled()).thenReturn(true);
+        when(replyWriteBehind.submit(any(), any())).thenThrow(new WriteQueueFullException(10));
+
+        mockMvc.perform(
+                post("/questions/1/reply")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(status().is(HttpStatus.TOO_MANY_REQUESTS.value()))
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
 
-}
\ No newline at end of file
+}
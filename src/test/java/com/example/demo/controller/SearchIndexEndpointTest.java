@@ -0,0 +1,52 @@
+package com.example.demo.controller;
+
+import com.example.demo.exception.SearchIndexRebuildRunningException;
+import com.example.demo.service.QuestionSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchIndexEndpointTest {
+
+    QuestionSearchService questionSearchService;
+    SearchIndexEndpoint searchIndexEndpoint;
+
+    @BeforeEach
+    public void before() {
+        questionSearchService = mock(QuestionSearchService.class);
+        searchIndexEndpoint = new SearchIndexEndpoint(questionSearchService);
+    }
+
+    /**
+     * When rebuild succeeds then number of indexed posts should be returned with 200 OK status.
+     */
+    @Test
+    void shouldReturnIndexedPosts_whenRebuildSucceeds() {
+        when(questionSearchService.rebuild()).thenReturn(3L);
+
+        WebEndpointResponse<Map<String, Object>> response = searchIndexEndpoint.rebuild();
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(3L, response.getBody().get("indexed"));
+    }
+
+    /**
+     * When rebuild is already running then 409 CONFLICT should be returned instead of server error.
+     */
+    @Test
+    void shouldReturnConflict_whenRebuildIsAlreadyRunning() {
+        when(questionSearchService.rebuild()).thenThrow(new SearchIndexRebuildRunningException());
+
+        WebEndpointResponse<Map<String, Object>> response = searchIndexEndpoint.rebuild();
+
+        assertEquals(HttpStatus.CONFLICT.value(), response.getStatus());
+        assertEquals(SearchIndexRebuildRunningException.ERROR_MESSAGE, response.getBody().get("error"));
+    }
+}
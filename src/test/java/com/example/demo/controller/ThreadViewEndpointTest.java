@@ -0,0 +1,55 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.ThreadViews;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ThreadViewEndpointTest {
+
+    ThreadViews threadViews;
+    ThreadViewEndpoint threadViewEndpoint;
+
+    @BeforeEach
+    public void before() {
+        threadViews = mock(ThreadViews.class);
+        threadViewEndpoint = new ThreadViewEndpoint(threadViews);
+    }
+
+    /**
+     * When rebuild is already running then 409 CONFLICT should be returned, as by search index endpoint.
+     */
+    @Test
+    void shouldReturnConflict_whenRebuildIsAlreadyRunning() throws Exception {
+        CountDownLatch rebuilding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            rebuilding.countDown();
+            release.await();
+            return 0L;
+        }).when(threadViews).rebuildAll();
+
+        try {
+            WebEndpointResponse<Map<String, Object>> started = threadViewEndpoint.rebuild();
+            assertTrue(rebuilding.await(5, TimeUnit.SECONDS));
+            WebEndpointResponse<Map<String, Object>> rejected = threadViewEndpoint.rebuild();
+
+            assertEquals(HttpStatus.OK.value(), started.getStatus());
+            assertEquals(true, started.getBody().get("started"));
+            assertEquals(HttpStatus.CONFLICT.value(), rejected.getStatus());
+            assertEquals(ThreadViewEndpoint.REBUILD_RUNNING_MESSAGE, rejected.getBody().get("error"));
+        } finally {
+            release.countDown();
+        }
+    }
+}
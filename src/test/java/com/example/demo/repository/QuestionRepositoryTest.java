@@ -0,0 +1,96 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Reply;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Integration tests for {@link QuestionRepository} queries, runs against embedded database with Hibernate statistics enabled.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class QuestionRepositoryTest {
+
+    private static final int REPLIES_PER_QUESTION = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void before() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * When listing page of questions then reply count should be filled for each question
+     * and number of executed SQL statements should not depend on number of listed questions or their replies.
+     */
+    @Test
+    void shouldListQuestionPageWithConstantNumberOfStatements() {
+        createQuestions(5);
+        long statementsForSmallPage = countStatementsOfQuestionPage(5);
+
+        createQuestions(45);
+        long statementsForBigPage = countStatementsOfQuestionPage(50);
+
+        assertEquals(1, statementsForSmallPage);
+        assertEquals(statementsForSmallPage, statementsForBigPage);
+    }
+
+    /**
+     * When listing page after given id then only questions with greater id should be returned, ordered by id.
+     */
+    @Test
+    void shouldReturnQuestionsAfterGivenIdOrderedById() {
+        createQuestions(5);
+        List<QuestionDTO> all = questionRepository.findQuestionPage(0L, PageRequest.of(0, 10));
+
+        List<QuestionDTO> page = questionRepository.findQuestionPage(all.get(1).getId(), PageRequest.of(0, 2));
+
+        assertEquals(2, page.size());
+        assertEquals(all.get(2).getId(), page.get(0).getId());
+        assertEquals(all.get(3).getId(), page.get(1).getId());
+    }
+
+    private long countStatementsOfQuestionPage(int expectedSize) {
+        statistics.clear();
+
+        List<QuestionDTO> page = questionRepository.findQuestionPage(0L, PageRequest.of(0, 100));
+
+        assertEquals(expectedSize, page.size());
+        page.forEach(question -> assertEquals(REPLIES_PER_QUESTION, question.getReplies()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createQuestions(int count) {
+        for (int i = 0; i < count; i++) {
+            Question question = entityManager.persist(
+                    Question.builder().author("author").message("message").replyCount(REPLIES_PER_QUESTION).build());
+            for (int j = 0; j < REPLIES_PER_QUESTION; j++) {
+                entityManager.persist(Reply.builder().author("author").message("reply").question(question).build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.ThreadReplyDTO;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Reply;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for {@link ReplyRepository} queries, runs against embedded database.
+ */
+@DataJpaTest
+class ReplyRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReplyRepository replyRepository;
+
+    /**
+     * When reading replies page after given id then only replies of given question with greater id
+     * should be returned, ordered by id.
+     */
+    @Test
+    void shouldReturnRepliesOfQuestionAfterGivenIdOrderedById() {
+        Question question = createQuestionWithReplies(5);
+        createQuestionWithReplies(5);
+        List<Reply> all = replyRepository.findReplyPage(question.getId(), 0L, PageRequest.of(0, 10));
+
+        List<Reply> page = replyRepository.findReplyPage(question.getId(), all.get(1).getId(), PageRequest.of(0, 2));
+
+        assertEquals(5, all.size());
+        all.forEach(reply -> assertEquals(question.getId(), reply.getQuestion().getId()));
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getId() < all.get(i).getId());
+        }
+        assertEquals(2, page.size());
+        assertEquals(all.get(2).getId(), page.get(0).getId());
+        assertEquals(all.get(3).getId(), page.get(1).getId());
+    }
+
+    /**
+     * When streaming replies page after given id then at most limit replies of given question with greater id
+     * should be streamed as ThreadReplyDTO, ordered by id.
+     */
+    @Test
+    void shouldStreamLimitedRepliesPageOfQuestionAfterGivenIdOrderedById() {
+        Question question = createQuestionWithReplies(5);
+        createQuestionWithReplies(5);
+        List<Reply> all = replyRepository.findReplyPage(question.getId(), 0L, PageRequest.of(0, 10));
+
+        List<ThreadReplyDTO> page;
+        try (Stream<ThreadReplyDTO> stream = replyRepository.streamReplyPage(question.getId(), all.get(1).getId(), Limit.of(2))) {
+            page = stream.toList();
+        }
+
+        assertEquals(2, page.size());
+        assertEquals(all.get(2).getId(), page.get(0).getId());
+        assertEquals(all.get(2).getMessage(), page.get(0).getMessage());
+        assertEquals(all.get(3).getId(), page.get(1).getId());
+    }
+
+    private Question createQuestionWithReplies(int replies) {
+        Question question = entityManager.persist(Question.builder().author("author").message("message").build());
+        for (int i = 0; i < replies; i++) {
+            entityManager.persist(Reply.builder().author("author").message("reply").question(question).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return question;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MappedThreadStoreTest {
+
+    private static final long NEVER = Long.MAX_VALUE / 2;
+
+    @TempDir
+    Path directory;
+
+    private MappedThreadStore store;
+
+    @BeforeEach
+    public void before() {
+        store = new MappedThreadStore(directory, 100);
+    }
+
+    @AfterEach
+    public void after() {
+        store.close();
+    }
+
+    /**
+     * When thread is stored then its JSON and ETag should be returned, absent thread returned as null.
+     */
+    @Test
+    void shouldReturnStoredThread() {
+        store.put(1L, json(10, 'a'), "\"1-0\"", System.nanoTime() + NEVER);
+
+        RenderedThread thread = store.get(1L);
+
+        assertArrayEquals(json(10, 'a'), thread.getJson());
+        assertEquals("\"1-0\"", thread.getEtag());
+        assertNull(thread.getThread());
+        assertEquals("\"1-0\"", store.etag(1L));
+        assertNull(store.get(2L));
+    }
+
+    /**
+     * When log wraps around then only the oldest threads overwritten by new one should be dropped.
+     */
+    @Test
+    void shouldOverwriteOldestThreadsWhenFull() {
+        for (long id = 1; id <= 5; id++) {
+            store.put(id, json(30, (char) ('a' + id)), "\"" + id + "\"", System.nanoTime() + NEVER);
+        }
+
+        assertNull(store.get(1L));
+        assertNull(store.get(2L));
+        assertArrayEquals(json(30, 'd'), store.get(3L).getJson());
+        assertArrayEquals(json(30, 'e'), store.get(4L).getJson());
+        assertArrayEquals(json(30, 'f'), store.get(5L).getJson());
+        assertEquals(2, store.evictions());
+        assertEquals(90, store.usedBytes());
+    }
+
+    /**
+     * When thread is replaced then new version should be returned and overwriting old version should not drop it.
+     */
+    @Test
+    void shouldKeepReplacedThreadWhenOldVersionIsOverwritten() {
+        store.put(1L, json(40, 'a'), "\"1-0\"", System.nanoTime() + NEVER);
+        store.put(1L, json(40, 'b'), "\"1-1\"", System.nanoTime() + NEVER);
+        store.put(2L, json(40, 'c'), "\"2-0\"", System.nanoTime() + NEVER);
+
+        assertArrayEquals(json(40, 'b'), store.get(1L).getJson());
+        assertEquals("\"1-1\"", store.etag(1L));
+        assertEquals(0, store.evictions());
+    }
+
+    /**
+     * When thread is removed or expired then it should not be returned.
+     */
+    @Test
+    void shouldNotReturnRemovedOrExpiredThread() {
+        store.put(1L, json(10, 'a'), "\"1-0\"", System.nanoTime() + NEVER);
+        store.put(2L, json(10, 'b'), "\"2-0\"", System.nanoTime() - 1);
+
+        store.remove(1L);
+
+        assertNull(store.get(1L));
+        assertNull(store.get(2L));
+        assertNull(store.etag(2L));
+    }
+
+    /**
+     * When thread is larger than the file then it should not be stored.
+     */
+    @Test
+    void shouldRejectThreadLargerThanFile() {
+        assertFalse(store.put(1L, json(101, 'a'), "\"1-0\"", System.nanoTime() + NEVER));
+
+        assertNull(store.get(1L));
+    }
+
+    private byte[] json(int length, char fill) {
+        return String.valueOf(fill).repeat(length).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.BulkResultDTO;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Reply;
+import com.example.demo.exception.BulkLimitExceededException;
+import com.example.demo.repository.QuestionRepository;
+import com.example.demo.repository.ReplyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import jakarta.validation.Validation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuestionBulkServiceTest {
+
+    QuestionRepository questionRepository;
+    ReplyRepository replyRepository;
+    QuestionBulkService questionBulkService;
+
+    @BeforeEach
+    public void before() {
+        questionRepository = mock(QuestionRepository.class);
+        replyRepository = mock(ReplyRepository.class);
+        ForumProperties forumProperties = new ForumProperties();
+        forumProperties.getBulk().setMaxItems(3);
+
+        questionBulkService = new QuestionBulkService(questionRepository, replyRepository, new QuestionMapper(),
+                new ThreadCache(forumProperties, new SimpleMeterRegistry(), new ObjectMapper()), mock(SearchIndex.class),
+                mock(ThreadViews.class), Validation.buildDefaultValidatorFactory().getValidator(), forumProperties);
+    }
+
+    /**
+     * When bulk of questions holds invalid item then valid items should be saved in one call
+     * and invalid one reported with 400 status at its index.
+     */
+    @Test
+    void shouldSaveValidQuestionsAndReportInvalidOnes() {
+        List<QuestionDTO> questions = Arrays.asList(
+                QuestionDTO.builder().author("author").message("first").build(),
+                QuestionDTO.builder().author("author").build(),
+                QuestionDTO.builder().author("author").message("third").build());
+        when(questionRepository.saveAll(anyList())).thenAnswer(invocation -> questionsWithIds(invocation.getArgument(0)));
+
+        BulkResultDTO result = questionBulkService.createQuestions(questions);
+
+        verify(questionRepository, times(1)).saveAll(anyList());
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(201, result.getResults().get(0).getStatus());
+        assertEquals(1L, result.getResults().get(0).getId());
+        assertEquals(400, result.getResults().get(1).getStatus());
+        assertNotNull(result.getResults().get(1).getError());
+        assertEquals(201, result.getResults().get(2).getStatus());
+        assertEquals(2L, result.getResults().get(2).getId());
+    }
+
+    /**
+     * When bulk of replies points to not existing question then those replies should be reported with 404 status,
+     * replies of existing question should be saved and its reply count incremented once by their number.
+     */
+    @Test
+    void shouldSaveRepliesOfExistingQuestionsAndReportMissingOnes() {
+        List<ReplyDTO> replies = Arrays.asList(
+                ReplyDTO.builder().questionId(1L).author("author").message("first").build(),
+                ReplyDTO.builder().questionId(2L).author("author").message("second").build(),
+                ReplyDTO.builder().questionId(1L).author("author").message("third").build());
+        when(questionRepository.findExistingIds(any())).thenReturn(Collections.singletonList(1L));
+        when(questionRepository.getReferenceById(1L)).thenReturn(Question.builder().id(1L).build());
+        when(replyRepository.saveAll(anyList())).thenAnswer(invocation -> repliesWithIds(invocation.getArgument(0)));
+
+        BulkResultDTO result = questionBulkService.createReplies(replies);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(201, result.getResults().get(0).getStatus());
+        assertEquals(404, result.getResults().get(1).getStatus());
+        assertNull(result.getResults().get(1).getId());
+        assertEquals(201, result.getResults().get(2).getStatus());
+        verify(questionRepository, times(1)).incrementReplyCount(1L, 2L);
+    }
+
+    /**
+     * When reply misses question id then it should be reported with 400 status without any repository access.
+     */
+    @Test
+    void shouldReportReplyWithoutQuestionId() {
+        List<ReplyDTO> replies = Collections.singletonList(ReplyDTO.builder().author("author").message("first").build());
+        when(replyRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
+
+        BulkResultDTO result = questionBulkService.createReplies(replies);
+
+        assertEquals(400, result.getResults().get(0).getStatus());
+        verify(questionRepository, never()).findExistingIds(any());
+    }
+
+    /**
+     * When bulk holds null items then they should be reported with 400 status and other items saved.
+     */
+    @Test
+    void shouldReportNullItems() {
+        List<QuestionDTO> questions = Arrays.asList(null, QuestionDTO.builder().author("author").message("second").build());
+        List<ReplyDTO> replies = Arrays.asList(ReplyDTO.builder().questionId(1L).author("author").message("first").build(), null);
+        when(questionRepository.saveAll(anyList())).thenAnswer(invocation -> questionsWithIds(invocation.getArgument(0)));
+        when(questionRepository.findExistingIds(any())).thenReturn(Collections.singletonList(1L));
+        when(replyRepository.saveAll(anyList())).thenAnswer(invocation -> repliesWithIds(invocation.getArgument(0)));
+
+        BulkResultDTO questionResult = questionBulkService.createQuestions(questions);
+        BulkResultDTO replyResult = questionBulkService.createReplies(replies);
+
+        assertEquals(400, questionResult.getResults().get(0).getStatus());
+        assertEquals(201, questionResult.getResults().get(1).getStatus());
+        assertEquals(201, replyResult.getResults().get(0).getStatus());
+        assertEquals(400, replyResult.getResults().get(1).getStatus());
+        assertNotNull(replyResult.getResults().get(1).getError());
+    }
+
+    /**
+     * When replies of many questions are saved then reply counts should be incremented in question id order.
+     */
+    @Test
+    void shouldIncrementReplyCountsInQuestionIdOrder() {
+        List<ReplyDTO> replies = Arrays.asList(
+                ReplyDTO.builder().questionId(3L).author("author").message("first").build(),
+                ReplyDTO.builder().questionId(1L).author("author").message("second").build(),
+                ReplyDTO.builder().questionId(2L).author("author").message("third").build());
+        when(questionRepository.findExistingIds(any())).thenReturn(Arrays.asList(1L, 2L, 3L));
+        when(replyRepository.saveAll(anyList())).thenAnswer(invocation -> repliesWithIds(invocation.getArgument(0)));
+
+        questionBulkService.createReplies(replies);
+
+        InOrder inOrder = inOrder(questionRepository);
+        inOrder.verify(questionRepository).incrementReplyCount(1L, 1L);
+        inOrder.verify(questionRepository).incrementReplyCount(2L, 1L);
+        inOrder.verify(questionRepository).incrementReplyCount(3L, 1L);
+    }
+
+    /**
+     * When bulk holds more items than allowed then BulkLimitExceededException should be thrown.
+     */
+    @Test
+    void shouldThrowBulkLimitExceededExceptionWhenTooManyItems() {
+        List<QuestionDTO> questions = Collections.nCopies(4, QuestionDTO.builder().author("author").message("message").build());
+
+        assertThrows(BulkLimitExceededException.class, () -> questionBulkService.createQuestions(questions));
+    }
+
+    private static List<Question> questionsWithIds(List<Question> questions) {
+        List<Question> saved = new ArrayList<>(questions.size());
+        long id = 1;
+        for (Question question : questions) {
+            saved.add(Question.builder().id(id++).author(question.getAuthor()).message(question.getMessage()).build());
+        }
+        return saved;
+    }
+
+    private static List<Reply> repliesWithIds(List<Reply> replies) {
+        long id = 1;
+        for (Reply reply : replies) {
+            reply.setId(id++);
+        }
+        return replies;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Reply;
+import com.example.demo.repository.QuestionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for {@link QuestionExportService}, runs against embedded database.
+ */
+@DataJpaTest
+class QuestionExportServiceTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    private QuestionExportService questionExportService;
+
+    @BeforeEach
+    public void before() {
+        ForumProperties forumProperties = new ForumProperties();
+        forumProperties.getExport().setClearInterval(2);
+        questionExportService = new QuestionExportService(questionRepository, new QuestionMapper(),
+                objectMapper, entityManager.getEntityManager(), forumProperties);
+    }
+
+    /**
+     * When exporting without replies then each question should be written as single QuestionDTO line ordered by id.
+     */
+    @Test
+    void shouldExportEachQuestionAsSingleLine() throws Exception {
+        createQuestions(5, 2);
+
+        String[] lines = export(false);
+
+        assertEquals(5, lines.length);
+        for (int i = 1; i < lines.length; i++) {
+            JsonNode previous = objectMapper.readTree(lines[i - 1]);
+            JsonNode current = objectMapper.readTree(lines[i]);
+            assertEquals(2, current.get("replies").asLong());
+            assertEquals(-1, Long.compare(previous.get("id").asLong(), current.get("id").asLong()));
+        }
+    }
+
+    /**
+     * When exporting with replies then each question line should hold all its replies in id order,
+     * read by single statement whatever number of questions.
+     */
+    @Test
+    void shouldInlineRepliesWhenRequested() throws Exception {
+        createQuestions(3, 4);
+        createQuestions(1, 0);
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String[] lines = export(true);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(4, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode thread = objectMapper.readTree(lines[i]);
+            assertFalse(thread.get("author").asText().isEmpty());
+            assertEquals(i < 3 ? 4 : 0, thread.get("replies").size());
+            for (int j = 1; j < thread.get("replies").size(); j++) {
+                assertTrue(thread.get("replies").get(j - 1).get("id").asLong() < thread.get("replies").get(j).get("id").asLong());
+            }
+        }
+    }
+
+    private String[] export(boolean includeReplies) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        questionExportService.exportQuestions(out, includeReplies);
+        String body = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals('\n', body.charAt(body.length() - 1));
+        return body.split("\n");
+    }
+
+    private void createQuestions(int questions, int replies) {
+        for (int i = 0; i < questions; i++) {
+            Question question = entityManager.persist(
+                    Question.builder().author("author").message("message").replyCount(replies).build());
+            for (int j = 0; j < replies; j++) {
+                entityManager.persist(Reply.builder().author("author").message("reply").question(question).build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
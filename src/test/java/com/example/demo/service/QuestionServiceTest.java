@@ -1,29 +1,58 @@
 package com.example.demo.service;
 
+import com.example.demo.config.ForumProperties;
 import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.QuestionPageDTO;
 import com.example.demo.dto.ReplyDTO;
 import com.example.demo.dto.ThreadDTO;
+import com.example.demo.dto.ThreadReplyDTO;
 import com.example.demo.entity.Question;
 import com.example.demo.entity.Reply;
+import com.example.demo.exception.InvalidCursorException;
 import com.example.demo.exception.QuestionNotFoundException;
 import com.example.demo.repository.QuestionRepository;
 import com.example.demo.repository.ReplyRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.bytebuddy.utility.RandomString;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -32,42 +61,95 @@ class QuestionServiceTest {
 
     private static final Random random = new Random();
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     QuestionRepository questionRepository;
     ReplyRepository replyRepository;
+    SimpleMeterRegistry meterRegistry;
+    ForumProperties forumProperties;
+    PlatformTransactionManager transactionManager;
     QuestionService questionService;
 
     @BeforeEach
     public void before() {
         questionRepository = mock(QuestionRepository.class);
         replyRepository = mock(ReplyRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        forumProperties = new ForumProperties();
+        transactionManager = mock(PlatformTransactionManager.class);
 
-        questionService = new QuestionService(questionRepository, replyRepository, new QuestionMapper());
+        questionService = new QuestionService(questionRepository, replyRepository, new QuestionMapper(), forumProperties,
+                new ThreadCache(forumProperties, meterRegistry, objectMapper), mock(SearchIndex.class),
+                mock(ThreadViews.class), objectMapper, new TransactionTemplate(transactionManager));
     }
 
     /**
-     * When execute getAllQuestions method and Questions repository is empty should return empty list.
+     * When execute getAllQuestions method and Questions repository is empty should return empty page without next cursor.
      */
     @Test
-    void shouldReturnEmptyListWhenNoQuestionsInRepository() {
-        when(questionRepository.findAll()).thenReturn(Collections.emptyList());
+    void shouldReturnEmptyPageWhenNoQuestionsInRepository() {
+        when(questionRepository.findQuestionPage(anyLong(), any())).thenReturn(Collections.emptyList());
 
-        List<QuestionDTO> allQuestions = questionService.getAllQuestions();
+        QuestionPageDTO page = questionService.getAllQuestions(null, null);
 
-        assertTrue(allQuestions.isEmpty());
+        assertTrue(page.getQuestions().isEmpty());
+        assertNull(page.getNextCursor());
     }
 
     /**
-     * When execute getAllQuestions method and Question repository is not empty should return list of QueriesDTO
+     * When execute getAllQuestions method and Question repository is not empty should return page of QueriesDTO
      */
     @Test
     void shouldReturnAllQueriesFromRepositoryMappedToQueryDTO() {
-        List<Question> questions = createQuestionListWithReply();
-        when(questionRepository.findAll()).thenReturn(questions);
+        List<QuestionDTO> questions = createQuestionDTOList(1);
+        when(questionRepository.findQuestionPage(anyLong(), any())).thenReturn(questions);
+
+        QuestionPageDTO page = questionService.getAllQuestions(null, null);
+
+        assertFalse(page.getQuestions().isEmpty());
+        assertEquals(questions.size(), page.getQuestions().size());
+        assertNull(page.getNextCursor());
+    }
+
+    /**
+     * When repository returns more rows than requested limit then page should be cut to limit
+     * and cursor of the next page should point after last returned question.
+     */
+    @Test
+    void shouldReturnNextCursorWhenMoreQuestionsThanLimit() {
+        List<QuestionDTO> questions = createQuestionDTOList(3);
+        when(questionRepository.findQuestionPage(0L, PageRequest.of(0, 3))).thenReturn(questions);
+        when(questionRepository.findQuestionPage(2L, PageRequest.of(0, 3))).thenReturn(questions.subList(2, 3));
+
+        QuestionPageDTO firstPage = questionService.getAllQuestions(null, 2);
+        QuestionPageDTO secondPage = questionService.getAllQuestions(firstPage.getNextCursor(), 2);
+
+        assertEquals(2, firstPage.getQuestions().size());
+        assertEquals(2L, firstPage.getQuestions().get(1).getId());
+        assertEquals(1, secondPage.getQuestions().size());
+        assertEquals(3L, secondPage.getQuestions().get(0).getId());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    /**
+     * When requested limit is bigger than configured maximum then page size should be capped.
+     */
+    @Test
+    void shouldCapPageSizeToConfiguredMaximum() {
+        when(questionRepository.findQuestionPage(anyLong(), any())).thenReturn(Collections.emptyList());
 
-        List<QuestionDTO> allQuestions = questionService.getAllQuestions();
+        questionService.getAllQuestions(null, Integer.MAX_VALUE);
 
-        assertFalse(allQuestions.isEmpty());
-        assertEquals(questions.size(), allQuestions.size());
+        verify(questionRepository).findQuestionPage(eq(0L), eq(PageRequest.of(0, 101)));
+    }
+
+    /**
+     * When cursor cannot be decoded then InvalidCursorException should be thrown.
+     */
+    @Test
+    void shouldThrowInvalidCursorExceptionWhenCursorIsMalformed() {
+        assertThrows(InvalidCursorException.class, () ->
+                questionService.getAllQuestions("not a cursor", null));
     }
 
     /**
@@ -91,10 +173,11 @@ class QuestionServiceTest {
     @Test
     void shouldThrowRuntimeExceptionWhenQuestionDoesntExistInRepository() {
         ReplyDTO replyDTO = ReplyDTO.builder().build();
-        when(questionRepository.findById(1L)).thenReturn(Optional.empty());
+        when(questionRepository.incrementReplyCount(1L, 1L)).thenReturn(0);
 
         assertThrows(QuestionNotFoundException.class, () ->
                 questionService.createReply(replyDTO, 1L));
+        verify(replyRepository, never()).save(any());
     }
 
     /**
@@ -104,18 +187,19 @@ class QuestionServiceTest {
     @Test
     void shouldCreateReplyInRepositoryAndReturnNotNullObjectWhenQuestionExist() {
         long questionId = 1L;
-        Question questionEntity = createRandomQuestion(Collections.emptyList());
-        when(questionRepository.findById(questionId)).thenReturn(Optional.of(questionEntity));
+        when(questionRepository.incrementReplyCount(questionId, 1L)).thenReturn(1);
         when(replyRepository.save(any())).thenReturn(createRandomReply());
 
         ReplyDTO replyDTO = questionService.createReply(createRandomReplyDTO(), questionId);
 
         verify(replyRepository, times(1)).save(any());
+        verify(questionRepository, times(1)).getReferenceById(questionId);
+        verify(questionRepository, never()).findById(any());
         assertNotNull(replyDTO);
     }
 
     /**
-     * When getThread method is invoked for existing question Id
+     * When getRenderedThread method is invoked for existing question Id
      * then not null object should be returned with correct ID
      */
     @Test
@@ -123,29 +207,220 @@ class QuestionServiceTest {
         Long questionId = 1L;
         Question questionEntity = createRandomQuestion(Collections.singletonList(createRandomReply()));
         when(questionRepository.findById(questionId)).thenReturn(Optional.of(questionEntity));
+        when(replyRepository.findReplyPage(eq(questionId), anyLong(), any())).thenReturn(questionEntity.getReplies());
 
-        ThreadDTO threadDTO = questionService.getThread(questionId);
+        ThreadDTO threadDTO = questionService.getRenderedThread(questionId).getThread();
 
         assertNotNull(threadDTO);
         assertEquals(questionEntity.getId(), threadDTO.getId());
+        assertEquals(1, threadDTO.getReplies().size());
+        assertNull(threadDTO.getNextCursor());
     }
 
     /**
-     * When getThread method is invoked for not existing Question in repository
-     * then QuestionNotFoundException should be thrown.
+     * When question has more replies than requested limit then replies page should be cut to limit,
+     * cursor should point after last returned reply and total should come from question reply count.
+     */
+    @Test
+    void shouldReturnRepliesPageWithNextCursorWhenMoreRepliesThanLimit() throws Exception {
+        Long questionId = 1L;
+        List<Reply> replies = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            replies.add(Reply.builder().id(id).author(RandomString.make()).message(RandomString.make()).build());
+        }
+        Question questionEntity = Question.builder().id(questionId).author("author").message("message").replyCount(5L).build();
+        when(questionRepository.findById(questionId)).thenReturn(Optional.of(questionEntity));
+        when(replyRepository.streamReplyPage(questionId, 0L, Limit.of(3))).thenReturn(threadReplies(replies).stream());
+        when(replyRepository.streamReplyPage(questionId, 2L, Limit.of(3))).thenReturn(threadReplies(replies).stream().skip(2));
+
+        JsonNode firstPage = writeThread(questionId, null, 2);
+        JsonNode secondPage = writeThread(questionId, firstPage.get("nextCursor").asText(), 2);
+
+        assertEquals(2, firstPage.get("replies").size());
+        assertEquals(5L, firstPage.get("totalReplies").asLong());
+        assertEquals(1, secondPage.get("replies").size());
+        assertEquals(3L, secondPage.get("replies").get(0).get("id").asLong());
+        assertTrue(secondPage.get("nextCursor").isNull());
+    }
+
+    /**
+     * When thread page is written to stream then it should be the same JSON as serialized cached first page,
+     * replies beyond the limit should only set next cursor.
+     */
+    @Test
+    void shouldWriteSameThreadPageJsonAsRenderedThread() throws Exception {
+        Long questionId = 1L;
+        List<Reply> replies = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            replies.add(Reply.builder().id(id).author(RandomString.make()).message(RandomString.make()).build());
+        }
+        Question questionEntity = Question.builder().id(questionId).author("author").message("message").replyCount(5L).build();
+        when(questionRepository.findById(questionId)).thenReturn(Optional.of(questionEntity));
+        when(replyRepository.findReplyPage(questionId, 0L, PageRequest.of(0, 3))).thenReturn(replies);
+        when(replyRepository.streamReplyPage(questionId, 0L, Limit.of(3))).thenReturn(threadReplies(replies).stream());
+        forumProperties.getPagination().setDefaultLimit(2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        questionService.writeThread(out, questionId, null, 2);
+
+        assertEquals(objectMapper.writeValueAsString(questionService.getRenderedThread(questionId).getThread()),
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * When first page of thread is read twice then second read should be served from cache without repository access.
+     */
+    @Test
+    void shouldServeFirstThreadPageFromCacheOnSecondRead() {
+        Long questionId = 1L;
+        Question questionEntity = createRandomQuestion(Collections.singletonList(createRandomReply()));
+        when(questionRepository.findById(questionId)).thenReturn(Optional.of(questionEntity));
+        when(replyRepository.findReplyPage(eq(questionId), anyLong(), any())).thenReturn(questionEntity.getReplies());
+
+        RenderedThread first = questionService.getRenderedThread(questionId);
+        RenderedThread second = questionService.getRenderedThread(questionId);
+
+        assertSame(first, second);
+        verify(questionRepository, times(1)).findById(questionId);
+    }
+
+    /**
+     * When reply is created then cached thread of its question should be invalidated and next read should reload it.
+     */
+    @Test
+    void shouldReloadCachedThreadAfterReplyIsCreated() {
+        Long questionId = 1L;
+        Question questionEntity = createRandomQuestion(Collections.singletonList(createRandomReply()));
+        when(questionRepository.findById(questionId)).thenReturn(Optional.of(questionEntity));
+        when(replyRepository.findReplyPage(eq(questionId), anyLong(), any())).thenReturn(questionEntity.getReplies());
+        when(questionRepository.incrementReplyCount(questionId, 1L)).thenReturn(1);
+        when(replyRepository.save(any())).thenReturn(createRandomReply());
+
+        RenderedThread beforeReply = questionService.getRenderedThread(questionId);
+        questionService.createReply(createRandomReplyDTO(), questionId);
+        RenderedThread afterReply = questionService.getRenderedThread(questionId);
+
+        assertNotSame(beforeReply, afterReply);
+        verify(replyRepository, times(2)).findReplyPage(eq(questionId), anyLong(), any());
+    }
+
+    /**
+     * When cached thread is invalidated by new reply then next miss should be loaded in read-write transaction
+     * served by primary data source, cache hits should not open transaction at all.
+     */
+    @Test
+    void shouldLoadInvalidatedThreadFromPrimary() {
+        Long questionId = 1L;
+        Question questionEntity = createRandomQuestion(Collections.singletonList(createRandomReply()));
+        when(questionRepository.findById(questionId)).thenReturn(Optional.of(questionEntity));
+        when(replyRepository.findReplyPage(eq(questionId), anyLong(), any())).thenReturn(questionEntity.getReplies());
+        when(questionRepository.incrementReplyCount(questionId, 1L)).thenReturn(1);
+        when(replyRepository.save(any())).thenReturn(createRandomReply());
+        List<Boolean> readOnly = new ArrayList<>();
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            readOnly.add(invocation.getArgument(0, TransactionDefinition.class).isReadOnly());
+            return null;
+        });
+
+        questionService.getRenderedThread(questionId);
+        questionService.createReply(createRandomReplyDTO(), questionId);
+        questionService.getRenderedThread(questionId);
+        questionService.getRenderedThread(questionId);
+
+        assertEquals(List.of(true, false), readOnly);
+    }
+
+    /**
+     * When many callers miss the same thread while slow repository loads it then only one load should run
+     * and every caller should get its result.
+     */
+    @Test
+    void shouldLoadThreadOnceForConcurrentMisses() throws Exception {
+        Long questionId = 1L;
+        int callers = 20;
+        Question questionEntity = createRandomQuestion(Collections.singletonList(createRandomReply()));
+        CountDownLatch release = new CountDownLatch(1);
+        when(questionRepository.findById(questionId)).thenAnswer(invocation -> {
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Optional.of(questionEntity);
+        });
+        when(replyRepository.findReplyPage(eq(questionId), anyLong(), any())).thenReturn(questionEntity.getReplies());
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<RenderedThread>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> questionService.getRenderedThread(questionId)));
+            }
+            Gauge waiting = meterRegistry.get("forum.thread.cache.load.waiting").gauge();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (waiting.value() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            RenderedThread first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<RenderedThread> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(questionRepository, times(1)).findById(questionId);
+        verify(replyRepository, times(1)).findReplyPage(eq(questionId), anyLong(), any());
+        DistributionSummary waiters = meterRegistry.get("forum.thread.cache.load.waiters").summary();
+        assertEquals(1, waiters.count());
+        assertEquals(callers - 1, waiters.totalAmount());
+    }
+
+    /**
+     * When thread is read or written for not existing Question in repository
+     * then QuestionNotFoundException should be thrown before anything is written.
      */
     @Test
     void shouldThrowRuntimeExceptionWhenQuestionDoesntExistInRepositoryForGivenThread() {
         when(questionRepository.findById(1L)).thenReturn(Optional.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
         assertThrows(QuestionNotFoundException.class, () ->
-                questionService.getThread(1L));
+                questionService.getRenderedThread(1L));
+        assertThrows(QuestionNotFoundException.class, () ->
+                questionService.writeThread(out, 1L, null, 2));
+        assertEquals(0, out.size());
+    }
+
+    /**
+     * When replies query fails then nothing should be flushed to the stream, so error response can still be sent.
+     */
+    @Test
+    void shouldNotFlushThreadBeforeFirstReplyIsRead() {
+        Question questionEntity = Question.builder().id(1L).author("author").message("message").build();
+        when(questionRepository.findById(1L)).thenReturn(Optional.of(questionEntity));
+        when(replyRepository.streamReplyPage(1L, 0L, Limit.of(3))).thenThrow(new IllegalStateException("replies"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(IllegalStateException.class, () -> questionService.writeThread(out, 1L, null, 2));
+        assertEquals(0, out.size());
+    }
+
+    private JsonNode writeThread(Long questionId, String after, Integer limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        questionService.writeThread(out, questionId, after, limit);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private static List<ThreadReplyDTO> threadReplies(List<Reply> replies) {
+        return replies.stream()
+                .map(reply -> new ThreadReplyDTO(reply.getId(), reply.getAuthor(), reply.getMessage()))
+                .toList();
     }
 
-    private List<Question> createQuestionListWithReply() {
-        Reply reply = createRandomReply();
-        Question question = createRandomQuestion(Collections.singletonList(reply));
-        reply.setQuestion(question);
-        return Collections.singletonList(question);
+    private List<QuestionDTO> createQuestionDTOList(int size) {
+        List<QuestionDTO> questions = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            questions.add(QuestionDTO.builder().id(id).author(RandomString.make()).message(RandomString.make()).replies(1L).build());
+        }
+        return questions;
     }
 
     private Reply createRandomReply() {
@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.repository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests of denormalized reply count, runs with full Spring context against embedded database.
+ */
+@SpringBootTest(properties = {"forum.reconciliation.enabled=false", "forum.reconciliation.batch-size=2"})
+class ReplyCounterTest {
+
+    private static final int REPLIERS = 16;
+    private static final int REPLIES_PER_REPLIER = 25;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private ReplyCountReconciler replyCountReconciler;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * When many repliers reply to the same question in parallel then no increment of reply count should be lost.
+     */
+    @Test
+    void shouldNotLoseReplyCountUpdatesWhenRepliesAreCreatedConcurrently() throws Exception {
+        Long questionId = createQuestion().getId();
+        ExecutorService executor = Executors.newFixedThreadPool(REPLIERS);
+        try {
+            List<Callable<Void>> repliers = new ArrayList<>();
+            for (int i = 0; i < REPLIERS; i++) {
+                repliers.add(() -> {
+                    for (int j = 0; j < REPLIES_PER_REPLIER; j++) {
+                        questionService.createReply(ReplyDTO.builder().author("author").message("reply").build(), questionId);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> replier : executor.invokeAll(repliers)) {
+                replier.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(REPLIERS * REPLIES_PER_REPLIER, questionRepository.findById(questionId).get().getReplyCount());
+    }
+
+    /**
+     * When stored reply count drifted from REPLIES table then reconciliation should repair it.
+     */
+    @Test
+    void shouldRepairDriftedReplyCounts() {
+        List<Long> questionIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Long questionId = createQuestion().getId();
+            questionService.createReply(ReplyDTO.builder().author("author").message("reply").build(), questionId);
+            questionIds.add(questionId);
+        }
+        jdbcTemplate.update("update QUESTIONS set reply_count = 42 where id in (?, ?)", questionIds.get(0), questionIds.get(3));
+
+        int repaired = replyCountReconciler.reconcile();
+
+        assertTrue(repaired >= 2);
+        questionIds.forEach(id -> assertEquals(1L, questionRepository.findById(id).get().getReplyCount()));
+    }
+
+    private QuestionDTO createQuestion() {
+        return questionService.createQuestion(QuestionDTO.builder().author("author").message("question").build());
+    }
+}
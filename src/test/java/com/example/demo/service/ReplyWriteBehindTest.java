@@ -0,0 +1,207 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.exception.QuestionNotFoundException;
+import com.example.demo.exception.WriteQueueFullException;
+import com.example.demo.repository.QuestionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests of write-behind reply creation, runs with full Spring context against embedded database.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehind",
+        "forum.reconciliation.enabled=false",
+        "forum.write-behind.enabled=true",
+        "forum.write-behind.batch-size=16"})
+@DirtiesContext
+class ReplyWriteBehindTest {
+
+    private static final int REPLIERS = 4;
+    private static final int REPLIES_PER_REPLIER = 50;
+
+    @Autowired
+    private ReplyWriteBehind replyWriteBehind;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * When replies are accepted concurrently then after drain all should be stored with accepted ids, reply counts
+     * should match and replies of each replier should be stored in order they were accepted.
+     */
+    @Test
+    void shouldStoreAllAcceptedRepliesInAcceptanceOrderOnDrain() throws Exception {
+        Long first = questionService.createQuestion(QuestionDTO.builder().author("author").message("first").build()).getId();
+        Long second = questionService.createQuestion(QuestionDTO.builder().author("author").message("second").build()).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(REPLIERS);
+        List<ReplyDTO> accepted = new ArrayList<>();
+        try {
+            List<Callable<List<ReplyDTO>>> repliers = new ArrayList<>();
+            for (int i = 0; i < REPLIERS; i++) {
+                Long questionId = i % 2 == 0 ? first : second;
+                String replier = "replier" + i;
+                repliers.add(() -> {
+                    List<ReplyDTO> replies = new ArrayList<>();
+                    for (int j = 0; j < REPLIES_PER_REPLIER; j++) {
+                        replies.add(replyWriteBehind.submit(ReplyDTO.builder().author(replier).message("reply " + j).build(), questionId));
+                    }
+                    return replies;
+                });
+            }
+            for (Future<List<ReplyDTO>> replier : executor.invokeAll(repliers)) {
+                accepted.addAll(replier.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        replyWriteBehind.stop();
+
+        assertEquals(REPLIERS * REPLIES_PER_REPLIER, jdbcTemplate.queryForObject("select count(*) from replies", Integer.class));
+        assertEquals(REPLIERS / 2 * REPLIES_PER_REPLIER, questionRepository.findById(first).get().getReplyCount());
+        assertEquals(REPLIERS / 2 * REPLIES_PER_REPLIER, questionRepository.findById(second).get().getReplyCount());
+        for (ReplyDTO reply : accepted) {
+            assertEquals(reply.getMessage(), jdbcTemplate.queryForObject(
+                    "select message from replies where id = ? and question_id = ?", String.class, reply.getId(), reply.getQuestionId()));
+        }
+        for (int i = 0; i < REPLIERS; i++) {
+            List<String> messages = jdbcTemplate.queryForList(
+                    "select message from replies where author = ? order by id", String.class, "replier" + i);
+            for (int j = 0; j < REPLIES_PER_REPLIER; j++) {
+                assertEquals("reply " + j, messages.get(j));
+            }
+        }
+    }
+
+    /**
+     * When question does not exist then reply should be rejected before it is accepted.
+     */
+    @Test
+    void shouldRejectReplyToNotExistingQuestion() {
+        assertThrows(QuestionNotFoundException.class,
+                () -> replyWriteBehind.submit(ReplyDTO.builder().author("author").message("reply").build(), Long.MAX_VALUE));
+    }
+
+    /**
+     * Writer should stop only after web server stopped accepting requests, web server start/stop lifecycle
+     * runs 1024 phases below graceful shutdown.
+     */
+    @Test
+    void shouldStopAfterWebServer() {
+        assertTrue(replyWriteBehind.getPhase() < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+    }
+
+    /**
+     * When writer is busy and queue is full then further replies should be rejected.
+     */
+    @Test
+    void shouldRejectReplyWhenQueueIsFull() throws Exception {
+        ForumProperties forumProperties = new ForumProperties();
+        forumProperties.getWriteBehind().setEnabled(true);
+        forumProperties.getWriteBehind().setQueueCapacity(1);
+        QuestionRepository questionRepository = mock(QuestionRepository.class);
+        ReplyIdAllocator replyIdAllocator = mock(ReplyIdAllocator.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(questionRepository.existsById(anyLong())).thenReturn(true);
+        when(replyIdAllocator.nextId()).thenReturn(1L, 2L, 3L);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        ReplyWriteBehind writeBehind = new ReplyWriteBehind(questionRepository, replyIdAllocator, mock(ThreadCache.class),
+                mock(SearchIndex.class), mock(ThreadViews.class), mock(JdbcTemplate.class), transactionTemplate, forumProperties, new SimpleMeterRegistry());
+        writeBehind.start();
+        try {
+            ReplyDTO reply = ReplyDTO.builder().author("author").message("reply").build();
+            writeBehind.submit(reply, 1L);
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            writeBehind.submit(reply, 1L);
+
+            assertThrows(WriteQueueFullException.class, () -> writeBehind.submit(reply, 1L));
+        } finally {
+            release.countDown();
+            writeBehind.stop();
+        }
+    }
+
+    /**
+     * When writer does not drain the queue within shutdown timeout then it should be interrupted and stop
+     * without writing replies left in the queue.
+     */
+    @Test
+    void shouldInterruptWriterWhenShutdownTimeoutElapses() throws Exception {
+        ForumProperties forumProperties = new ForumProperties();
+        forumProperties.getWriteBehind().setEnabled(true);
+        forumProperties.getWriteBehind().setShutdownTimeout(Duration.ofMillis(100));
+        QuestionRepository questionRepository = mock(QuestionRepository.class);
+        ReplyIdAllocator replyIdAllocator = mock(ReplyIdAllocator.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        CountDownLatch writing = new CountDownLatch(1);
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        when(questionRepository.existsById(anyLong())).thenReturn(true);
+        when(replyIdAllocator.nextId()).thenReturn(1L, 2L);
+        doAnswer(invocation -> {
+            writer.set(Thread.currentThread());
+            writing.countDown();
+            new CountDownLatch(1).await();
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        ReplyWriteBehind writeBehind = new ReplyWriteBehind(questionRepository, replyIdAllocator, mock(ThreadCache.class),
+                mock(SearchIndex.class), mock(ThreadViews.class), mock(JdbcTemplate.class), transactionTemplate, forumProperties, new SimpleMeterRegistry());
+        writeBehind.start();
+        ReplyDTO reply = ReplyDTO.builder().author("author").message("reply").build();
+        writeBehind.submit(reply, 1L);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        writeBehind.submit(reply, 1L);
+
+        writeBehind.stop();
+
+        writer.get().join(5000);
+        assertFalse(writer.get().isAlive());
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+    }
+}
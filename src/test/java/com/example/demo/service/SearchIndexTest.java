@@ -0,0 +1,221 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.QuestionDTO;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.dto.SearchHitDTO;
+import com.example.demo.dto.SearchResultDTO;
+import com.example.demo.exception.SearchIndexRebuildRunningException;
+import com.example.demo.repository.QuestionRepository;
+import com.example.demo.repository.ReplyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchIndexTest {
+
+    QuestionRepository questionRepository;
+    ReplyRepository replyRepository;
+    SearchIndex searchIndex;
+    QuestionSearchService questionSearchService;
+
+    @BeforeEach
+    public void before() {
+        questionRepository = mock(QuestionRepository.class);
+        replyRepository = mock(ReplyRepository.class);
+        ForumProperties forumProperties = new ForumProperties();
+        forumProperties.getSearch().setMaxResults(3);
+
+        searchIndex = new SearchIndex(forumProperties);
+        questionSearchService = new QuestionSearchService(questionRepository, replyRepository, searchIndex, forumProperties);
+    }
+
+    @AfterEach
+    public void after() throws IOException {
+        searchIndex.close();
+    }
+
+    /**
+     * When questions and replies are indexed then search should return matching posts, more relevant first.
+     */
+    @Test
+    void shouldReturnMatchingPostsOrderedByRelevance() {
+        searchIndex.addQuestions(Arrays.asList(
+                question(1L, "How to configure spring boot datasource"),
+                question(2L, "Unrelated question about cooking")));
+        searchIndex.addReplies(Arrays.asList(
+                reply(1L, 3L, "Spring boot reads datasource from application yml, spring boot is great"),
+                reply(2L, 4L, "Add salt")));
+        searchIndex.commit();
+
+        List<SearchHitDTO> hits = questionSearchService.search("spring boot", null, null).getHits();
+
+        assertEquals(2, hits.size());
+        assertEquals(3L, hits.get(0).getReplyId());
+        assertEquals(1L, hits.get(0).getQuestionId());
+        assertEquals(1L, hits.get(1).getQuestionId());
+        assertNull(hits.get(1).getReplyId());
+        assertEquals("author", hits.get(1).getAuthor());
+        assertEquals("How to configure spring boot datasource", hits.get(1).getMessage());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    /**
+     * When there are more hits than page size then cursor should point to the next page,
+     * paging should stop at configured maximum number of results.
+     */
+    @Test
+    void shouldPageThroughHitsUpToMaxResults() {
+        for (long id = 1; id <= 5; id++) {
+            searchIndex.addQuestions(Collections.singletonList(question(id, "spring")));
+        }
+        searchIndex.commit();
+
+        SearchResultDTO first = questionSearchService.search("spring", null, 2);
+        SearchResultDTO second = questionSearchService.search("spring", first.getNextCursor(), 2);
+
+        assertEquals(2, first.getHits().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(1, second.getHits().size());
+        assertNull(second.getNextCursor());
+    }
+
+    /**
+     * When query has no searchable terms then empty page should be returned.
+     */
+    @Test
+    void shouldReturnEmptyPageWhenQueryHasNoTerms() {
+        searchIndex.addQuestions(Collections.singletonList(question(1L, "spring")));
+        searchIndex.commit();
+
+        SearchResultDTO result = questionSearchService.search("  ", null, null);
+
+        assertTrue(result.getHits().isEmpty());
+        assertNull(result.getNextCursor());
+    }
+
+    /**
+     * When index is rebuilt then it should hold exactly posts from repositories.
+     */
+    @Test
+    void shouldRebuildIndexFromRepositories() {
+        searchIndex.addQuestions(Collections.singletonList(question(9L, "stale spring")));
+        when(questionRepository.streamQuestions()).thenReturn(Stream.of(question(1L, "spring")));
+        when(replyRepository.streamReplies()).thenReturn(Stream.of(reply(1L, 2L, "spring boot")));
+
+        long indexed = questionSearchService.rebuild();
+
+        assertEquals(2, indexed);
+        List<SearchHitDTO> hits = questionSearchService.search("spring", null, null).getHits();
+        assertEquals(2, hits.size());
+        assertTrue(hits.stream().noneMatch(hit -> hit.getQuestionId() == 9L));
+    }
+
+    /**
+     * When index is being rebuilt then live index should keep serving searches and posts added meanwhile
+     * should be kept in rebuilt index.
+     */
+    @Test
+    void shouldServeLiveIndexWhileRebuilding() {
+        searchIndex.addQuestions(Collections.singletonList(question(1L, "spring")));
+        searchIndex.commit();
+        List<Integer> hitsDuringRebuild = new ArrayList<>();
+        when(questionRepository.streamQuestions()).thenReturn(Stream.of(question(1L, "spring")).peek(question -> {
+            hitsDuringRebuild.add(questionSearchService.search("spring", null, null).getHits().size());
+            searchIndex.addQuestions(Collections.singletonList(question(2L, "spring boot")));
+        }));
+        when(replyRepository.streamReplies()).thenReturn(Stream.empty());
+
+        long indexed = questionSearchService.rebuild();
+
+        assertEquals(Collections.singletonList(1), hitsDuringRebuild);
+        assertEquals(2, indexed);
+        assertEquals(2, questionSearchService.search("spring", null, null).getHits().size());
+    }
+
+    /**
+     * When rebuild fails then live index should stay in place and next rebuild should be possible.
+     */
+    @Test
+    void shouldKeepLiveIndexWhenRebuildFails() {
+        searchIndex.addQuestions(Collections.singletonList(question(1L, "spring")));
+        searchIndex.commit();
+        when(questionRepository.streamQuestions()).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> questionSearchService.rebuild());
+
+        assertEquals(1, questionSearchService.search("spring", null, null).getHits().size());
+        searchIndex.beginRebuild();
+        searchIndex.abortRebuild();
+    }
+
+    /**
+     * When rebuild is requested while another one is running then it should be rejected
+     * and running rebuild should not be affected.
+     */
+    @Test
+    void shouldRejectRebuildWhileAnotherIsRunning() {
+        searchIndex.beginRebuild();
+
+        assertThrows(SearchIndexRebuildRunningException.class, () -> questionSearchService.rebuild());
+
+        searchIndex.rebuildQuestion(question(1L, "spring"));
+        assertEquals(1, searchIndex.finishRebuild());
+    }
+
+    /**
+     * When index kept in directory is rebuilt then reopened index should hold rebuilt posts
+     * and previous index files should be deleted.
+     */
+    @Test
+    void shouldReopenRebuiltIndexFromDirectory(@TempDir Path directory) throws IOException {
+        ForumProperties forumProperties = new ForumProperties();
+        forumProperties.getSearch().setDirectory(directory.toString());
+        SearchIndex fileIndex = new SearchIndex(forumProperties);
+        QuestionSearchService fileSearchService =
+                new QuestionSearchService(questionRepository, replyRepository, fileIndex, forumProperties);
+        fileIndex.addQuestions(Collections.singletonList(question(9L, "stale spring")));
+        when(questionRepository.streamQuestions()).thenReturn(Stream.of(question(1L, "spring")));
+        when(replyRepository.streamReplies()).thenReturn(Stream.empty());
+        fileSearchService.rebuild();
+        fileIndex.close();
+
+        SearchIndex reopened = new SearchIndex(forumProperties);
+        try {
+            List<SearchHitDTO> hits = reopened.search("spring", 0, 10);
+            assertEquals(1, hits.size());
+            assertEquals(1L, hits.get(0).getQuestionId());
+            assertFalse(Files.exists(directory.resolve("1")));
+            assertTrue(Files.exists(directory.resolve("2")));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static QuestionDTO question(Long id, String message) {
+        return new QuestionDTO(id, "author", message, 0L);
+    }
+
+    private static ReplyDTO reply(Long questionId, Long id, String message) {
+        return new ReplyDTO(questionId, id, "author", message);
+    }
+}
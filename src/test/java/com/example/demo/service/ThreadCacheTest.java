@@ -0,0 +1,164 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.ThreadDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadCacheTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    private MeterRegistry meterRegistry;
+    private ThreadCache threadCache;
+
+    @BeforeEach
+    public void before() {
+        ForumProperties forumProperties = new ForumProperties();
+        forumProperties.getCache().getThread().setMaxSize(100);
+        forumProperties.getCache().getThread().getMapped().setEnabled(true);
+        forumProperties.getCache().getThread().getMapped().setDirectory(directory.toString());
+        meterRegistry = new SimpleMeterRegistry();
+        threadCache = new ThreadCache(forumProperties, meterRegistry, objectMapper);
+    }
+
+    @AfterEach
+    public void after() {
+        threadCache.close();
+    }
+
+    /**
+     * When thread is put into cache then it should be returned and counted as hit, absent thread counted as miss.
+     */
+    @Test
+    void shouldReturnCachedThreadAndCountHitsAndMisses() {
+        ThreadDTO thread = createThread(1L);
+
+        RenderedThread rendered = threadCache.put(1L, thread, threadCache.stamp());
+
+        assertSame(rendered, threadCache.get(1L));
+        assertSame(thread, rendered.getThread());
+        assertNull(threadCache.get(2L));
+        assertEquals(1.0, meterRegistry.counter("forum.thread.cache.hits").count());
+        assertEquals(1.0, meterRegistry.counter("forum.thread.cache.misses").count());
+    }
+
+    /**
+     * When question is invalidated while thread is being loaded then loaded thread should not be cached,
+     * so stale reply count is never served after newer one.
+     */
+    @Test
+    void shouldRejectThreadLoadedBeforeInvalidation() {
+        long stamp = threadCache.stamp();
+        threadCache.invalidate(1L);
+
+        threadCache.put(1L, createThread(0L), stamp);
+
+        assertNull(threadCache.get(1L));
+    }
+
+    /**
+     * When question is invalidated then it should be reported as invalidated until thread loaded after that is cached.
+     */
+    @Test
+    void shouldReportInvalidatedThreadUntilReloaded() {
+        threadCache.put(1L, createThread(0L), threadCache.stamp());
+        assertFalse(threadCache.isInvalidated(1L));
+
+        threadCache.invalidate(1L);
+        assertTrue(threadCache.isInvalidated(1L));
+
+        threadCache.put(1L, createThread(1L), threadCache.stamp());
+        assertFalse(threadCache.isInvalidated(1L));
+        assertFalse(threadCache.isInvalidated(2L));
+    }
+
+    /**
+     * When thread loaded after invalidation is put into cache then it should be cached
+     * and older concurrent load should not overwrite it.
+     */
+    @Test
+    void shouldKeepThreadLoadedAfterInvalidation() {
+        long staleStamp = threadCache.stamp();
+        threadCache.invalidate(1L);
+        ThreadDTO fresh = createThread(1L);
+
+        threadCache.put(1L, fresh, threadCache.stamp());
+        threadCache.put(1L, createThread(0L), staleStamp);
+
+        assertSame(fresh, threadCache.get(1L).getThread());
+    }
+
+    /**
+     * When thread is cached then it should hold its JSON bytes and ETag derived from reply count.
+     */
+    @Test
+    void shouldRenderJsonAndEtagOfCachedThread() throws Exception {
+        ThreadDTO thread = createThread(3L);
+
+        threadCache.put(1L, thread, threadCache.stamp());
+
+        assertEquals("\"1-3\"", threadCache.etag(1L));
+        assertArrayEquals(objectMapper.writeValueAsBytes(thread), threadCache.get(1L).getJson());
+        assertNull(threadCache.etag(2L));
+    }
+
+    /**
+     * When threads are evicted from heap by size then they should be served from mapped tier as JSON with ETag.
+     */
+    @Test
+    void shouldServeThreadsEvictedFromHeapFromMappedTier() throws Exception {
+        LongStream.rangeClosed(1, 150).forEach(id -> threadCache.put(id, createThread(id, 0L), threadCache.stamp()));
+
+        for (long id = 1; id <= 150; id++) {
+            RenderedThread thread = threadCache.get(id);
+            assertNotNull(thread);
+            assertArrayEquals(objectMapper.writeValueAsBytes(createThread(id, 0L)), thread.getJson());
+            assertEquals("\"" + id + "-0\"", threadCache.etag(id));
+        }
+        assertEquals(50.0, meterRegistry.counter("forum.thread.cache.mapped.hits").count());
+        assertEquals(100.0, meterRegistry.counter("forum.thread.cache.hits").count());
+    }
+
+    /**
+     * When question of thread held in mapped tier is invalidated then thread should not be served.
+     */
+    @Test
+    void shouldInvalidateThreadInMappedTier() {
+        LongStream.rangeClosed(1, 150).forEach(id -> threadCache.put(id, createThread(id, 0L), threadCache.stamp()));
+
+        LongStream.rangeClosed(1, 150).forEach(threadCache::invalidate);
+
+        for (long id = 1; id <= 150; id++) {
+            assertNull(threadCache.get(id));
+            assertNull(threadCache.etag(id));
+        }
+    }
+
+    private ThreadDTO createThread(Long id, Long totalReplies) {
+        return ThreadDTO.builder().id(id).author("author").message("message").totalReplies(totalReplies).build();
+    }
+
+    private ThreadDTO createThread(Long totalReplies) {
+        return ThreadDTO.builder().id(1L).author("author").message("message").totalReplies(totalReplies).build();
+    }
+}
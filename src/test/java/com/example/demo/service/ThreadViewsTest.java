@@ -0,0 +1,194 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ForumProperties;
+import com.example.demo.dto.ReplyDTO;
+import com.example.demo.dto.ThreadDTO;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Reply;
+import com.example.demo.repository.QuestionRepository;
+import com.example.demo.repository.ReplyRepository;
+import com.example.demo.repository.ThreadViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Integration tests for {@link ThreadViews}, runs against embedded database.
+ */
+@DataJpaTest
+class ThreadViewsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private ReplyRepository replyRepository;
+
+    @Autowired
+    private ThreadViewRepository threadViewRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ThreadViews threadViews;
+
+    @BeforeEach
+    public void before() {
+        ForumProperties forumProperties = new ForumProperties();
+        // views hold 4 replies
+        forumProperties.getPagination().setMaxLimit(3);
+        threadViews = new ThreadViews(threadViewRepository, questionRepository, replyRepository, forumProperties,
+                new TransactionTemplate(transactionManager));
+    }
+
+    /**
+     * When replies are appended then first pages should be read from view in id order with total and next cursor.
+     */
+    @Test
+    void shouldReadFirstPageOfAppendedReplies() {
+        Question question = createQuestion();
+        List<ReplyDTO> replies = createReplies(question, 3);
+        threadViews.append(replies);
+
+        ThreadDTO all = threadViews.read(question.getId(), 3);
+        ThreadDTO page = threadViews.read(question.getId(), 2);
+
+        assertEquals(question.getId(), all.getId());
+        assertEquals("message", all.getMessage());
+        assertEquals(3, all.getTotalReplies());
+        assertEquals(ids(replies), ids(all));
+        assertEquals(replies.get(2).getMessage(), all.getReplies().get(2).getMessage());
+        assertNull(all.getNextCursor());
+        assertEquals(ids(replies).subList(0, 2), ids(page));
+        assertEquals(PageCursor.encode(replies.get(1).getId()), page.getNextCursor());
+    }
+
+    /**
+     * When view is full then later replies should not be appended but largest page should still know about next page.
+     */
+    @Test
+    void shouldStopAppendingWhenViewIsFull() {
+        Question question = createQuestion();
+        List<ReplyDTO> replies = createReplies(question, 6);
+        threadViews.append(replies.subList(0, 3));
+        threadViews.append(replies.subList(3, 6));
+
+        ThreadDTO page = threadViews.read(question.getId(), 3);
+
+        assertEquals(6, page.getTotalReplies());
+        assertEquals(ids(replies).subList(0, 3), ids(page));
+        assertEquals(PageCursor.encode(replies.get(2).getId()), page.getNextCursor());
+        assertEquals(4, threadViewRepository.findDocument(question.getId()).orElseThrow().getReplyCount());
+    }
+
+    /**
+     * When reply is appended after reply with higher id then view should be rebuilt with replies in id order.
+     */
+    @Test
+    void shouldRebuildViewWhenReplyArrivesOutOfOrder() {
+        Question question = createQuestion();
+        List<ReplyDTO> replies = createReplies(question, 3);
+        threadViews.append(Arrays.asList(replies.get(0), replies.get(2)));
+        threadViews.append(Collections.singletonList(replies.get(1)));
+
+        ThreadDTO page = threadViews.read(question.getId(), 3);
+
+        assertEquals(ids(replies), ids(page));
+    }
+
+    /**
+     * When question has no view then thread should not be read from view until views are rebuilt.
+     */
+    @Test
+    void shouldReadThreadWithoutViewOnlyAfterRebuild() {
+        Question question = entityManager.persist(Question.builder().author("author").message("message").build());
+        List<ReplyDTO> replies = createReplies(question, 2);
+
+        assertNull(threadViews.read(question.getId(), 3));
+
+        assertEquals(1, threadViews.rebuildAll());
+        assertEquals(ids(replies), ids(threadViews.read(question.getId(), 3)));
+    }
+
+    /**
+     * When question without view is replied to then view should be built with all replies.
+     */
+    @Test
+    void shouldBuildMissingViewOnReply() {
+        Question question = entityManager.persist(Question.builder().author("author").message("message").build());
+        List<ReplyDTO> replies = createReplies(question, 2);
+        threadViews.append(replies.subList(1, 2));
+
+        assertEquals(ids(replies), ids(threadViews.read(question.getId(), 3)));
+    }
+
+    /**
+     * When reply is inserted without appending it to view then view should not be read until it is rebuilt
+     * on the next appended reply.
+     */
+    @Test
+    void shouldRebuildViewMissingReply() {
+        Question question = createQuestion();
+        List<ReplyDTO> replies = new ArrayList<>(createReplies(question, 2));
+        threadViews.append(replies);
+        replies.addAll(createReplies(question, 1));
+
+        assertNull(threadViews.read(question.getId(), 3));
+
+        List<ReplyDTO> next = createReplies(question, 1);
+        replies.addAll(next);
+        threadViews.append(next);
+
+        ThreadDTO page = threadViews.read(question.getId(), 3);
+        assertEquals(4, page.getTotalReplies());
+        assertEquals(ids(replies).subList(0, 3), ids(page));
+        assertEquals(4, threadViewRepository.findDocument(question.getId()).orElseThrow().getReplyCount());
+    }
+
+    private Question createQuestion() {
+        Question question = entityManager.persist(Question.builder().author("author").message("message").build());
+        threadViews.create(question);
+        return question;
+    }
+
+    private List<ReplyDTO> createReplies(Question question, int count) {
+        List<ReplyDTO> replies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // non-ASCII characters and length above 127 put bytes with high bit set into the document
+            String message = "réponse " + i + " " + "x".repeat(150);
+            Reply reply = entityManager.persist(Reply.builder().author("author").message(message).question(question).build());
+            replies.add(ReplyDTO.builder()
+                    .questionId(question.getId())
+                    .id(reply.getId())
+                    .author(reply.getAuthor())
+                    .message(reply.getMessage())
+                    .build());
+        }
+        entityManager.flush();
+        questionRepository.incrementReplyCount(question.getId(), count);
+        return replies;
+    }
+
+    private static List<Long> ids(List<ReplyDTO> replies) {
+        return replies.stream().map(ReplyDTO::getId).toList();
+    }
+
+    private static List<Long> ids(ThreadDTO thread) {
+        return thread.getReplies().stream().map(reply -> reply.getId()).toList();
+    }
+}